@@ -1,5 +1,6 @@
 plugins {
     alias(libs.plugins.android.application)
+    alias(libs.plugins.baselineprofile)
     id("com.google.gms.google-services")
 }
 
@@ -9,20 +10,26 @@ android {
 
     defaultConfig {
         applicationId = "com.example.grocerylistapp"
-<<<<<<< HEAD
         minSdk = 34
-=======
-        minSdk = 24
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
         targetSdk = 36
         versionCode = 1
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Where each user's items live; see GroceryPaths for the layouts it migrates from
+        buildConfigField("String", "GROCERIES_PATH", "\"Users/{uid}\"")
+        // Set -PfirebaseEmulatorHost=10.0.2.2 to run against the local Firebase emulator suite
+        val emulatorHost = providers.gradleProperty("firebaseEmulatorHost").getOrElse("")
+        buildConfigField("String", "FIREBASE_EMULATOR_HOST", "\"$emulatorHost\"")
+        // Set -PframeMetrics=true to record list frame timings in every run; see FrameMetricsRecorder
+        val frameMetrics = providers.gradleProperty("frameMetrics").getOrElse("false").toBoolean()
+        buildConfigField("boolean", "FRAME_METRICS", "$frameMetrics")
     }
 
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
 
 
@@ -54,9 +61,22 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.asynclayoutinflater)
     implementation("androidx.recyclerview:recyclerview:1.3.2")
 
+    // Installs the baseline profile on devices whose store didn't, so it's used from first launch
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
+
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
-}
\ No newline at end of file
+}
+
+// The profile is regenerated on demand and checked in under src/release/generated, so release
+// builds package it without needing a device: ./gradlew :app:generateBaselineProfile
+baselineProfile {
+    automaticGenerationDuringBuild = false
+    saveInSrc = true
+    dexLayoutOptimization = true
+}
@@ -0,0 +1,96 @@
+package com.example.grocerylistapp;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that rebinding rows, as a fling does, allocates nothing beyond what the views
+ * themselves allocate for the same text and state changes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GroceryAdapterAllocationTest {
+
+    private static final int ITEM_COUNT = 200;
+    private static final int HOLDER_COUNT = 12; // About one screen of rows
+    private static final int PASSES = 5;
+
+    @Test
+    public void bind_allocatesNothingInSteadyState() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = new ContextThemeWrapper(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_GroceryListApp);
+            List<GroceryItem> items = new ArrayList<>();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                items.add(new GroceryItem("-N" + i, "Item " + i, 1 + i % 20));
+            }
+            GroceryAdapter adapter = new GroceryAdapter(items, null);
+            FrameLayout parent = new FrameLayout(context);
+            List<GroceryAdapter.GroceryViewHolder> holders = new ArrayList<>();
+            for (int i = 0; i < HOLDER_COUNT; i++) {
+                holders.add(adapter.onCreateViewHolder(parent, 0));
+            }
+
+            // Warm up: fills the label cache and whatever the views cache on first use
+            bindAll(adapter, holders);
+
+            QuantityLabels labels = new QuantityLabels();
+            List<String> quantityTexts = new ArrayList<>();
+            for (GroceryItem item : items) {
+                quantityTexts.add(labels.forQuantity(item.getQuantity()));
+            }
+            long viewAllocations = countAllocations(() -> setViewsDirectly(items, quantityTexts, holders));
+            long bindAllocations = countAllocations(() -> bindAll(adapter, holders));
+
+            assertTrue("bind allocated " + bindAllocations + " objects, the views alone " + viewAllocations,
+                    bindAllocations <= viewAllocations);
+        });
+    }
+
+    // Same sequence of holders and positions as a fling through the whole list
+    private static void bindAll(GroceryAdapter adapter, List<GroceryAdapter.GroceryViewHolder> holders) {
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int position = 0; position < ITEM_COUNT; position++) {
+                adapter.onBindViewHolder(holders.get(position % holders.size()), position);
+            }
+        }
+    }
+
+    // The view updates bind makes, with the texts prepared up front
+    private static void setViewsDirectly(List<GroceryItem> items, List<String> quantityTexts,
+                                         List<GroceryAdapter.GroceryViewHolder> holders) {
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (int position = 0; position < ITEM_COUNT; position++) {
+                GroceryAdapter.GroceryViewHolder holder = holders.get(position % holders.size());
+                GroceryItem item = items.get(position);
+                holder.btnDecrement.setEnabled(item.getQuantity() > 1);
+                holder.tvItemName.setText(item.getItem());
+                holder.tvItemQuantity.setText(quantityTexts.get(position));
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation") // Still the only per-thread allocation counter on ART
+    private static long countAllocations(Runnable work) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            work.run();
+            return Debug.getThreadAllocCount();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.example.grocerylistapp;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Load test of the list sync against the local Firebase emulator, at 1k, 10k and 100k items.
+ * Each run seeds a synthetic user, then measures:
+ * <ul>
+ *   <li>first-load: repository start to the first rows in the adapter</li>
+ *   <li>local-writes: saves, adds and deletes through the repository, to the adapter and to the server ack</li>
+ *   <li>concurrent-writers: other clients (separate FirebaseApps, so separate connections)
+ *       editing the open list at once, from their write to the adapter update</li>
+ *   <li>scroll: each page loaded by scrolling down the list</li>
+ * </ul>
+ * with the peak Java and native heap of each. Results are logged under {@link #TAG} and appended
+ * to load-results.txt in the app's external files directory, one line per scenario.
+ *
+ * Start the emulator with `firebase emulators:start --only database` and build with
+ * -PfirebaseEmulatorHost=10.0.2.2; without an emulator host the test is skipped.
+ */
+@RunWith(Parameterized.class)
+public class GroceryLoadEmulatorTest {
+
+    private static final String TAG = "GroceryLoad";
+    private static final String RESULTS_FILE = "load-results.txt";
+
+    private static final int SEED_CHUNK = 5_000;
+    private static final int PAGES_TO_SCROLL = 20;
+    // All writes go to rows of the first page, so they're in the subscribed window
+    private static final int LOCAL_WRITES = 15; // Each of saves, adds and deletes
+    private static final int WRITERS = 4;
+    private static final int WRITES_PER_WRITER = 12; // WRITERS * WRITES_PER_WRITER rows, none hit twice
+    private static final long WRITE_SPACING_MS = 20;
+    private static final long TIMEOUT_SECONDS = 180;
+
+    @Parameterized.Parameters(name = "{0} items")
+    public static Object[] sizes() {
+        return new Object[]{1_000, 10_000, 100_000};
+    }
+
+    @Parameterized.Parameter
+    public int itemCount;
+
+    private Context context;
+    private GroceryRepository repository;
+    private GroceryAdapter adapter;
+    private GroceryRepository.Observer observer;
+    private String uid;
+    private final List<FirebaseApp> writerApps = new ArrayList<>();
+
+    // Writes waiting to show up in the adapter, by item id; checked on the main thread
+    private final Map<String, Expected> expected = new ConcurrentHashMap<>();
+    private volatile CountDownLatch arrivals;
+    private volatile Latencies arrivalLatencies;
+    private volatile CountDownLatch firstRows;
+
+    private static final class Expected {
+        final Integer quantity; // Null for a delete
+        final long startNanos;
+
+        Expected(Integer quantity, long startNanos) {
+            this.quantity = quantity;
+            this.startNanos = startNanos;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("No Firebase emulator configured", FirebaseUtils.usesEmulator());
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        uid = "load-test-" + itemCount + "-" + UUID.randomUUID();
+        repository = GroceryRepository.getInstance(context);
+        onMain(() -> {
+            repository.stop();
+            adapter = new GroceryAdapter(new ArrayList<>(), null);
+            adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+                @Override
+                public void onChanged() {
+                    onAdapterUpdated();
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount) {
+                    onAdapterUpdated();
+                }
+
+                @Override
+                public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                    onAdapterUpdated();
+                }
+
+                @Override
+                public void onItemRangeInserted(int positionStart, int itemCount) {
+                    onAdapterUpdated();
+                }
+
+                @Override
+                public void onItemRangeRemoved(int positionStart, int itemCount) {
+                    onAdapterUpdated();
+                }
+
+                @Override
+                public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                    onAdapterUpdated();
+                }
+            });
+            // Fed the same way MainActivity feeds its adapter
+            observer = new GroceryRepository.Observer() {
+                @Override
+                public void onItemsChanged(List<GroceryItem> items) {
+                    adapter.setItems(items);
+                }
+
+                @Override
+                public void onSyncError(DatabaseError error) {
+                    Log.e(TAG, "Sync error", error.toException());
+                }
+
+                @Override
+                public void onWriteRolledBack(GroceryItem item, Exception error) {
+                    Log.e(TAG, "Write rolled back: " + item, error);
+                }
+            };
+            repository.addObserver(observer);
+        });
+        seed();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (repository == null) return;
+        onMain(() -> {
+            repository.removeObserver(observer);
+            repository.stop();
+        });
+        await(groceries(FirebaseUtils.getDatabase()).removeValue());
+        for (FirebaseApp app : writerApps) {
+            app.delete();
+        }
+    }
+
+    @Test
+    public void syncAtScale() throws Exception {
+        measureFirstLoad();
+        measureLocalWrites();
+        measureConcurrentWriters();
+        measureScroll();
+    }
+
+    private void measureFirstLoad() throws Exception {
+        MemorySampler memory = MemorySampler.begin();
+        firstRows = new CountDownLatch(1);
+        long start = SystemClock.elapsedRealtimeNanos();
+        onMain(() -> repository.start(uid));
+        assertTrue("First rows never arrived", firstRows.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        long firstRowsNanos = SystemClock.elapsedRealtimeNanos() - start;
+        memory.finish();
+        report("first-load", String.format(Locale.US, "firstRowsMs=%.1f %s", firstRowsNanos / 1e6, memory.summary()));
+    }
+
+    private void measureScroll() throws Exception {
+        MemorySampler memory = MemorySampler.begin();
+        // Each loadMore is timed until the last row in the window moves on
+        Latencies pages = new Latencies();
+        int pagesToScroll = Math.min(PAGES_TO_SCROLL, itemCount / GroceryListSync.PAGE_SIZE - 1);
+        for (int i = 0; i < pagesToScroll; i++) {
+            String lastBefore = lastItemId();
+            long pageStart = SystemClock.elapsedRealtimeNanos();
+            onMain(() -> repository.loadMore());
+            long deadline = SystemClock.elapsedRealtime() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+            while (lastBefore.equals(lastItemId())) {
+                assertTrue("Page " + i + " never arrived", SystemClock.elapsedRealtime() < deadline);
+                Thread.sleep(2);
+            }
+            pages.add(SystemClock.elapsedRealtimeNanos() - pageStart);
+        }
+        memory.finish();
+        report("scroll", "pages=" + pages.summary() + " " + memory.summary());
+    }
+
+    private void measureLocalWrites() throws Exception {
+        List<GroceryItem> shown = new ArrayList<>();
+        onMain(() -> shown.addAll(repository.getItems()));
+        assertTrue("Not enough rows loaded", shown.size() >= LOCAL_WRITES * 2);
+
+        MemorySampler memory = MemorySampler.begin();
+        Latencies acks = new Latencies();
+        List<Task<Void>> tasks = new ArrayList<>();
+        expectArrivals(LOCAL_WRITES * 3);
+        onMain(() -> {
+            for (int i = 0; i < LOCAL_WRITES; i++) {
+                GroceryItem item = shown.get(i);
+                tasks.add(timed(acks, expect(item.getId(), item.getQuantity() % 900 + 2),
+                        () -> repository.save(new GroceryItem(item.getId(), item.getItem(), item.getQuantity() % 900 + 2))));
+                // Push keys sort ahead of the seeded keys, so adds land in the first page too
+                GroceryItem added = new GroceryItem(repository.newItemId(), "load add " + i, 1);
+                tasks.add(timed(acks, expect(added.getId(), 1), () -> repository.save(added)));
+                GroceryItem removed = shown.get(LOCAL_WRITES + i);
+                tasks.add(timed(acks, expect(removed.getId(), null), () -> repository.delete(removed)));
+            }
+        });
+        assertTrue("Local writes never reached the adapter", arrivals.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Latencies toAdapter = arrivalLatencies;
+        await(Tasks.whenAll(tasks));
+        memory.finish();
+        report("local-writes", "toAdapter=" + toAdapter.summary() + " toServerAck=" + acks.summary() + " " + memory.summary());
+    }
+
+    private void measureConcurrentWriters() throws Exception {
+        List<GroceryItem> shown = new ArrayList<>();
+        onMain(() -> shown.addAll(repository.getItems()));
+        int keys = WRITERS * WRITES_PER_WRITER;
+        assertTrue("Not enough rows loaded", shown.size() >= keys);
+
+        MemorySampler memory = MemorySampler.begin();
+        expectArrivals(keys);
+        List<Thread> writers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            final DatabaseReference ref = groceries(writerDatabase(writer));
+            writers.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < WRITES_PER_WRITER; j++) {
+                        String id = shown.get(j * WRITERS + writer).getId();
+                        int quantity = 100 + writer * WRITES_PER_WRITER + j; // Unique per write
+                        expect(id, quantity);
+                        ref.child(id).child(GroceryItemCodec.KEY_QUANTITY).setValue(quantity);
+                        Thread.sleep(WRITE_SPACING_MS);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }, "load-writer-" + w));
+        }
+        for (Thread thread : writers) thread.start();
+        for (Thread thread : writers) thread.join();
+        assertTrue("Writer failed: " + failures, failures.isEmpty());
+        assertTrue("Remote writes never reached the adapter", arrivals.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        memory.finish();
+        report("concurrent-writers", "writers=" + WRITERS + " toAdapter=" + arrivalLatencies.summary() + " " + memory.summary());
+    }
+
+    // Main thread, after each batch of adapter notifications
+    private void onAdapterUpdated() {
+        if (firstRows != null && adapter.getItemCount() > 0) {
+            firstRows.countDown();
+        }
+        long now = SystemClock.elapsedRealtimeNanos();
+        for (Map.Entry<String, Expected> entry : expected.entrySet()) {
+            GroceryItem live = repository.getItem(entry.getKey());
+            Expected write = entry.getValue();
+            boolean arrived = write.quantity == null ? live == null
+                    : live != null && live.getQuantity() == write.quantity;
+            if (arrived && expected.remove(entry.getKey(), write)) {
+                arrivalLatencies.add(now - write.startNanos);
+                arrivals.countDown();
+            }
+        }
+    }
+
+    private void expectArrivals(int count) {
+        expected.clear();
+        arrivalLatencies = new Latencies();
+        arrivals = new CountDownLatch(count);
+    }
+
+    private long expect(String id, Integer quantity) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        expected.put(id, new Expected(quantity, start));
+        return start;
+    }
+
+    private static Task<Void> timed(Latencies acks, long start, Supplier<Task<Void>> write) {
+        Task<Void> task = write.get();
+        task.addOnCompleteListener(t -> acks.add(SystemClock.elapsedRealtimeNanos() - start));
+        return task;
+    }
+
+    private String lastItemId() throws Exception {
+        String[] last = new String[1];
+        onMain(() -> {
+            List<GroceryItem> items = repository.getItems();
+            last[0] = items.isEmpty() ? "" : items.get(items.size() - 1).getId();
+        });
+        return last[0];
+    }
+
+    // Synthetic items in key order, written in chunks from a separate connection
+    private void seed() throws Exception {
+        DatabaseReference ref = groceries(writerDatabase(-1));
+        Map<String, Object> chunk = new HashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            String id = String.format(Locale.US, "k%06d", i);
+            chunk.put(id, GroceryItemCodec.encode(new GroceryItem(id, "item " + i, i % 20 + 1)));
+            if (chunk.size() == SEED_CHUNK || i == itemCount - 1) {
+                await(ref.updateChildren(chunk));
+                chunk = new HashMap<>();
+            }
+        }
+    }
+
+    private DatabaseReference groceries(FirebaseDatabase database) {
+        return database.getReference(FirebaseUtils.getPaths().canonical(uid));
+    }
+
+    // Another client of the same project; its writes reach the app only through the emulator
+    private FirebaseDatabase writerDatabase(int writer) {
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(),
+                "load-writer-" + writer + "-" + uid);
+        writerApps.add(app);
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(BuildConfig.FIREBASE_EMULATOR_HOST, FirebaseUtils.DATABASE_EMULATOR_PORT);
+        return database;
+    }
+
+    private void report(String scenario, String metrics) {
+        String line = String.format(Locale.US, "items=%d scenario=%s %s", itemCount, scenario, metrics);
+        Log.i(TAG, line);
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) return;
+        try (FileWriter out = new FileWriter(new File(dir, RESULTS_FILE), true)) {
+            out.write(line + "\n");
+        } catch (IOException e) {
+            Log.w(TAG, "Couldn't write " + RESULTS_FILE, e);
+        }
+    }
+
+    private static void onMain(Runnable action) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(action);
+    }
+
+    private static <T> T await(Task<T> task) throws Exception {
+        return Tasks.await(task, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Durations in nanoseconds, summarised in milliseconds. */
+    private static final class Latencies {
+        private long[] values = new long[64];
+        private int count;
+
+        synchronized void add(long nanos) {
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = nanos;
+        }
+
+        synchronized String summary() {
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            return String.format(Locale.US, "[n=%d p50=%.1f p90=%.1f p99=%.1f max=%.1f]", count,
+                    FrameStats.percentile(sorted, count, 50) / 1e6, FrameStats.percentile(sorted, count, 90) / 1e6,
+                    FrameStats.percentile(sorted, count, 99) / 1e6, (count > 0 ? sorted[count - 1] : 0) / 1e6);
+        }
+    }
+
+    /** Peak Java heap in use and native heap allocated, sampled every few milliseconds. */
+    private static final class MemorySampler implements Runnable {
+        private static final long INTERVAL_MS = 10;
+        private final Thread thread = new Thread(this, "load-memory-sampler");
+        private volatile boolean running = true;
+        private long peakJava;
+        private long peakNative;
+
+        static MemorySampler begin() {
+            Runtime.getRuntime().gc();
+            MemorySampler sampler = new MemorySampler();
+            sampler.thread.start();
+            return sampler;
+        }
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            while (running) {
+                peakJava = Math.max(peakJava, runtime.totalMemory() - runtime.freeMemory());
+                peakNative = Math.max(peakNative, Debug.getNativeHeapAllocatedSize());
+                SystemClock.sleep(INTERVAL_MS);
+            }
+        }
+
+        void finish() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+
+        String summary() {
+            return String.format(Locale.US, "peakJavaMb=%.1f peakNativeMb=%.1f", peakJava / 1048576.0, peakNative / 1048576.0);
+        }
+    }
+}
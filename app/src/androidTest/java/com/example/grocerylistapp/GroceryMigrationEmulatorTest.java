@@ -0,0 +1,134 @@
+package com.example.grocerylistapp;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs GroceryMigration against the local Firebase emulator. Start it with
+ * `firebase emulators:start --only database` and build with -PfirebaseEmulatorHost=10.0.2.2;
+ * without an emulator host the test is skipped.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GroceryMigrationEmulatorTest {
+
+    private static final int LEGACY_ITEMS = GroceryMigration.CHUNK_SIZE * 2 + 50;
+
+    private FirebaseDatabase database;
+    private GroceryPaths paths;
+    private String uid;
+
+    @Before
+    public void setUp() {
+        assumeTrue("No Firebase emulator configured", FirebaseUtils.usesEmulator());
+        database = FirebaseUtils.getDatabase();
+        paths = new GroceryPaths("Users/{uid}");
+        uid = "migration-test-" + UUID.randomUUID();
+    }
+
+    private static <T> T await(com.google.android.gms.tasks.Task<T> task) throws Exception {
+        return Tasks.await(task, 30, TimeUnit.SECONDS);
+    }
+
+    private static String key(int i) {
+        return String.format("k%04d", i);
+    }
+
+    @Test
+    public void migrate_copiesInChunksWithoutOverwritingAndIsIdempotent() throws Exception {
+        Map<String, Object> legacy = new HashMap<>();
+        for (int i = 0; i < LEGACY_ITEMS; i++) {
+            Map<String, Object> node = new HashMap<>();
+            node.put(GroceryItemCodec.LEGACY_KEY_NAME, "item " + i); // Oldest field layout
+            node.put(GroceryItemCodec.V1_KEY_QUANTITY, i % 5 + 1);
+            legacy.put(key(i), node);
+        }
+        await(database.getReference(GroceryPaths.resolve("groceries/{uid}", uid)).setValue(legacy));
+        DatabaseReference canonical = database.getReference(paths.canonical(uid));
+        await(canonical.child(key(5)).setValue(GroceryItemCodec.encode(new GroceryItem(key(5), "edited since", 9))));
+
+        GroceryMigration migration = new GroceryMigration(database, paths);
+        assertEquals(Integer.valueOf(LEGACY_ITEMS - 1), await(migration.migrate(uid)));
+
+        DataSnapshot migrated = await(canonical.get());
+        assertEquals(LEGACY_ITEMS, migrated.getChildrenCount());
+        assertEquals("item 7", GroceryItemCodec.decode(key(7), migrated.child(key(7)).getValue()).getItem());
+        assertEquals("edited since", GroceryItemCodec.decode(key(5), migrated.child(key(5)).getValue()).getItem());
+
+        DataSnapshot checkpoint = await(database.getReference(paths.checkpoint(uid, "groceries/{uid}")).get());
+        assertEquals(key(LEGACY_ITEMS - 1), checkpoint.child(GroceryMigration.KEY_LAST_KEY).getValue(String.class));
+        assertEquals(Boolean.TRUE, checkpoint.child(GroceryMigration.KEY_DONE).getValue(Boolean.class));
+
+        assertEquals(Integer.valueOf(0), await(migration.migrate(uid)));
+    }
+
+    @Test
+    public void migrate_resumesAfterTheCheckpoint() throws Exception {
+        Map<String, Object> legacy = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            legacy.put(key(i), GroceryItemCodec.encode(new GroceryItem(key(i), "item " + i, 1)));
+        }
+        await(database.getReference(GroceryPaths.resolve("users/{uid}/groceries", uid)).setValue(legacy));
+        // As if an earlier run had committed the first four
+        await(database.getReference(paths.checkpoint(uid, "users/{uid}/groceries"))
+                .child(GroceryMigration.KEY_LAST_KEY).setValue(key(3)));
+
+        assertEquals(Integer.valueOf(6), await(new GroceryMigration(database, paths).migrate(uid)));
+        DataSnapshot migrated = await(database.getReference(paths.canonical(uid)).get());
+        assertFalse(migrated.hasChild(key(3)));
+        assertTrue(migrated.hasChild(key(4)));
+    }
+
+    // As setValue(GroceryItem) wrote them
+    private static Map<String, Object> version1Node(int i) {
+        Map<String, Object> node = new HashMap<>();
+        node.put(GroceryItemCodec.V1_KEY_ID, key(i));
+        node.put(GroceryItemCodec.V1_KEY_ITEM, "item " + i);
+        node.put(GroceryItemCodec.V1_KEY_QUANTITY, i % 5 + 1);
+        return node;
+    }
+
+    @Test
+    public void migrate_rewritesCanonicalVersion1NodesInChunks() throws Exception {
+        int count = GroceryMigration.CHUNK_SIZE + 20;
+        Map<String, Object> canonicalItems = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            canonicalItems.put(key(i), version1Node(i));
+        }
+        // A version 1 node after a quantity-only update, and one already compact
+        Map<String, Object> halfUpgraded = version1Node(1);
+        halfUpgraded.put(GroceryItemCodec.KEY_QUANTITY, 9);
+        canonicalItems.put(key(1), halfUpgraded);
+        canonicalItems.put(key(2), GroceryItemCodec.encode(new GroceryItem(key(2), "item 2", 3)));
+        DatabaseReference canonical = database.getReference(paths.canonical(uid));
+        await(canonical.setValue(canonicalItems));
+
+        assertEquals(Integer.valueOf(0), await(new GroceryMigration(database, paths).migrate(uid)));
+
+        DataSnapshot upgraded = await(canonical.get());
+        assertEquals(count, upgraded.getChildrenCount());
+        for (DataSnapshot child : upgraded.getChildren()) {
+            assertFalse(child.getKey(), GroceryItemCodec.isOutdated(child.getValue()));
+        }
+        assertEquals(new GroceryItem(key(1), "item 1", 9), GroceryItemCodec.decode(key(1), upgraded.child(key(1)).getValue()));
+        assertEquals(new GroceryItem(key(7), "item 7", 3), GroceryItemCodec.decode(key(7), upgraded.child(key(7)).getValue()));
+
+        DataSnapshot checkpoint = await(database.getReference(paths.upgradeCheckpoint(uid)).get());
+        assertEquals(Boolean.TRUE, checkpoint.child(GroceryMigration.KEY_DONE).getValue(Boolean.class));
+    }
+}
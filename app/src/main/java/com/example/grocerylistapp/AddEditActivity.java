@@ -2,59 +2,43 @@ package com.example.grocerylistapp;
 
 import android.os.Bundle;
 import android.text.TextUtils;
-<<<<<<< HEAD
 import android.util.Log;
 import android.view.MenuItem;
-=======
-import android.util.Log; // Make sure Log is imported
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-<<<<<<< HEAD
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 
-=======
-import androidx.appcompat.app.AppCompatActivity;
-
-import com.google.android.gms.tasks.OnFailureListener; // Ensure this is imported for detailed error
-import com.google.android.gms.tasks.OnSuccessListener; // Ensure this is imported
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.DatabaseError;
 
-<<<<<<< HEAD
-=======
-// Removed OnCompleteListener and Task imports as we are using OnSuccessListener/OnFailureListener directly
+import java.util.List;
 
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 public class AddEditActivity extends AppCompatActivity {
     private static final String TAG = "AddEditActivity";
 
-    private EditText etItemName, etQuantity;
+    /** Key of the item to edit; absent when adding. The item itself is read from the repository. */
+    public static final String EXTRA_ITEM_ID = "ITEM_ID";
+
+    private EditText etItemName, etQuantity, etBulkItems;
     private Button btnSave;
-<<<<<<< HEAD
+    private Button btnBulkMode;
+    private boolean bulkMode;
     private Button btnBack; // NEW: Declare the back button
 
     private String receivedItemId;
-    private DatabaseReference userSpecificGroceriesRef;
-=======
-
-    private String receivedItemId; // This is the ID from MainActivity if editing
-    private DatabaseReference userSpecificGroceriesRef; // Reference to /groceries/{uid}
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+    private GroceryRepository repository;
+    private GroceryItem shownItem; // Live copy last written into the form; null until it's loaded
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_edit);
 
-<<<<<<< HEAD
         // --- NEW: Add this block to enable the ActionBar back arrow ---
         ActionBar actionBar = getSupportActionBar();
         if (actionBar != null) {
@@ -66,76 +50,57 @@ public class AddEditActivity extends AppCompatActivity {
         etQuantity = findViewById(R.id.etQuantity);
         btnSave = findViewById(R.id.btnSave);
         btnBack = findViewById(R.id.btnBack); // NEW: Initialize the back button
+        etBulkItems = findViewById(R.id.etBulkItems);
+        btnBulkMode = findViewById(R.id.btnBulkMode);
 
-=======
-        etItemName = findViewById(R.id.etItemName);
-        etQuantity = findViewById(R.id.etQuantity);
-        btnSave = findViewById(R.id.btnSave);
-
-        // --- Get current authenticated user and set up database reference ---
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        FirebaseUser currentUser = FirebaseUtils.getAuth().getCurrentUser();
         if (currentUser == null) {
             Toast.makeText(this, "Error: You are not logged in.", Toast.LENGTH_LONG).show();
             Log.e(TAG, "User is not authenticated. Cannot save or edit item.");
-<<<<<<< HEAD
             finish();
-=======
-            finish(); // Close activity if no user
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
             return;
         }
-        String currentUserId = currentUser.getUid();
-        userSpecificGroceriesRef = FirebaseDatabase.getInstance()
-<<<<<<< HEAD
-                .getReference("Users")
-                .child(currentUserId);
-        Log.d(TAG, "Database reference for user operations: " + userSpecificGroceriesRef.toString());
+        repository = GroceryRepository.getInstance(this);
+        repository.start(currentUser.getUid());
 
-        receivedItemId = getIntent().getStringExtra("ITEM_ID");
+        receivedItemId = getIntent().getStringExtra(EXTRA_ITEM_ID);
         if (receivedItemId != null) {
             setTitle("Edit Item");
-            String itemName = getIntent().getStringExtra("ITEM_NAME");
-            int qty = getIntent().getIntExtra("ITEM_QTY", 1);
-
-            etItemName.setText(itemName);
-            etQuantity.setText(String.valueOf(qty));
-            Log.d(TAG, "Editing item. ID: " + receivedItemId + ", Name: " + itemName + ", Qty: " + qty);
-=======
-                .getReference("groceries")
-                .child(currentUserId);
-        Log.d(TAG, "Database reference for user operations: " + userSpecificGroceriesRef.toString());
-
+            Log.d(TAG, "Editing item. ID: " + receivedItemId);
+            // Delivers the current list straight away if there is one, then every later change
+            repository.observe(this, new GroceryRepository.Observer() {
+                @Override
+                public void onItemsChanged(List<GroceryItem> items) {
+                    showLiveItem();
+                }
 
-        // --- Check if this is an edit operation ---
-        // MainActivity should pass these extras if it's an edit
-        receivedItemId = getIntent().getStringExtra("ITEM_ID");
-        if (receivedItemId != null) {
-            setTitle("Edit Item");
-            String name = getIntent().getStringExtra("ITEM_NAME");
-            int qty = getIntent().getIntExtra("ITEM_QTY", 1); // Default to 1 if not found
+                @Override
+                public void onSyncError(DatabaseError error) {
+                    // MainActivity reports sync errors
+                }
 
-            etItemName.setText(name);
-            etQuantity.setText(String.valueOf(qty));
-            Log.d(TAG, "Editing item. ID: " + receivedItemId + ", Name: " + name + ", Qty: " + qty);
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+                @Override
+                public void onWriteRolledBack(GroceryItem item, Exception error) {
+                    // The rollback arrives as a list change; MainActivity shows the notice
+                }
+            });
         } else {
             setTitle("Add New Item");
             Log.d(TAG, "Adding new item.");
+            // Bulk entry only makes sense when adding
+            btnBulkMode.setVisibility(View.VISIBLE);
+            btnBulkMode.setOnClickListener(v -> setBulkMode(!bulkMode));
         }
 
-<<<<<<< HEAD
         btnSave.setOnClickListener(v -> {
-            String itemName = etItemName.getText().toString().trim();
-            String quantityStr = etQuantity.getText().toString().trim();
-            int quantity;
-=======
+            if (bulkMode) {
+                saveBulkItems();
+                return;
+            }
 
-        btnSave.setOnClickListener(v -> {
             String itemName = etItemName.getText().toString().trim();
             String quantityStr = etQuantity.getText().toString().trim();
-            int quantity = 1; // Default quantity
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+            int quantity;
 
             if (TextUtils.isEmpty(itemName)) {
                 etItemName.setError("Item name cannot be empty.");
@@ -143,7 +108,6 @@ public class AddEditActivity extends AppCompatActivity {
                 return;
             }
 
-<<<<<<< HEAD
             try {
                 quantity = TextUtils.isEmpty(quantityStr) ? 1 : Integer.parseInt(quantityStr);
                 if (quantity <= 0) {
@@ -158,49 +122,12 @@ public class AddEditActivity extends AppCompatActivity {
                 return;
             }
 
-=======
-            if (!TextUtils.isEmpty(quantityStr)) {
-                try {
-                    quantity = Integer.parseInt(quantityStr);
-                    if (quantity <= 0) {
-                        etQuantity.setError("Quantity must be positive.");
-                        Toast.makeText(this, "Quantity must be a positive number.", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                } catch (NumberFormatException e) {
-                    etQuantity.setError("Invalid quantity.");
-                    Toast.makeText(this, "Invalid quantity format.", Toast.LENGTH_SHORT).show();
-                    Log.w(TAG, "Invalid quantity format: " + quantityStr, e);
-                    return; // Stop processing if quantity is invalid
-                }
-            } else {
-                // If quantity field is empty, you might want to default it or require it
-                // For now, it defaults to 1 as initialized.
-                // If quantity is required:
-                // etQuantity.setError("Quantity cannot be empty.");
-                // Toast.makeText(this, "Please enter quantity.", Toast.LENGTH_SHORT).show();
-                // return;
-            }
-
-
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-            if (userSpecificGroceriesRef == null) {
-                Toast.makeText(this, "Database error. Please restart the app.", Toast.LENGTH_SHORT).show();
-                Log.e(TAG, "userSpecificGroceriesRef is null. Cannot proceed with save.");
-                return;
-            }
-
-<<<<<<< HEAD
-=======
-            // --- Logic for saving or updating ---
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
             if (receivedItemId == null) {
                 addNewItem(itemName, quantity);
             } else {
                 updateExistingItem(receivedItemId, itemName, quantity);
             }
         });
-<<<<<<< HEAD
 
         // NEW: Add the click listener for the explicit "Back" button
         btnBack.setOnClickListener(v -> {
@@ -229,85 +156,72 @@ public class AddEditActivity extends AppCompatActivity {
         overrideActivityTransition(OVERRIDE_TRANSITION_CLOSE, R.anim.fade_in, R.anim.fade_out);
     }
 
-    private void addNewItem(String itemName, int quantity) {
-        String newFirebaseKey = userSpecificGroceriesRef.push().getKey();
-        if (newFirebaseKey == null) {
-            Toast.makeText(this, "Could not create item entry.", Toast.LENGTH_SHORT).show();
-            Log.e(TAG, "Firebase push().getKey() returned null.");
-            return;
+    // Fills the form from the repository's copy of the item. Later changes from other devices
+    // replace the form only while the user hasn't typed over it; their edits win on save.
+    private void showLiveItem() {
+        GroceryItem live = repository.getItem(receivedItemId);
+        if (live == null) {
+            if (shownItem != null) {
+                Toast.makeText(this, "This item was deleted.", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+            return; // Not loaded yet; the list that brings it calls back here
         }
-
-        GroceryItem item = new GroceryItem(newFirebaseKey, itemName, quantity);
-        userSpecificGroceriesRef.child(newFirebaseKey).setValue(item)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(AddEditActivity.this, "Item added successfully!", Toast.LENGTH_SHORT).show();
-                    finish(); // Go back to MainActivity after success
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(AddEditActivity.this, "Save failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    Log.e(TAG, "Failed to save new item", e);
-                });
+        if (live.equals(shownItem)) return;
+        if (shownItem == null || formShows(shownItem)) {
+            etItemName.setText(live.getItem());
+            etQuantity.setText(String.valueOf(live.getQuantity()));
+        }
+        shownItem = live;
     }
 
-    private void updateExistingItem(String itemIdToUpdate, String itemName, int quantity) {
-        GroceryItem item = new GroceryItem(itemIdToUpdate, itemName, quantity);
-        userSpecificGroceriesRef.child(itemIdToUpdate).setValue(item)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(AddEditActivity.this, "Item updated successfully!", Toast.LENGTH_SHORT).show();
-                    finish(); // Go back to MainActivity after success
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(AddEditActivity.this, "Update failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    Log.e(TAG, "Failed to update item", e);
-=======
+    private boolean formShows(GroceryItem item) {
+        return TextUtils.equals(etItemName.getText().toString(), item.getItem())
+                && TextUtils.equals(etQuantity.getText().toString(), String.valueOf(item.getQuantity()));
     }
 
-    private void addNewItem(String name, int quantity) {
-        String newFirebaseKey = userSpecificGroceriesRef.push().getKey();
+    private void setBulkMode(boolean enabled) {
+        bulkMode = enabled;
+        int single = enabled ? View.GONE : View.VISIBLE;
+        etItemName.setVisibility(single);
+        etQuantity.setVisibility(single);
+        etBulkItems.setVisibility(enabled ? View.VISIBLE : View.GONE);
+        btnBulkMode.setText(enabled ? "Add a single item" : "Add several items");
+        setTitle(enabled ? "Add Several Items" : "Add New Item");
+    }
 
-        if (newFirebaseKey == null) {
-            Toast.makeText(this, "Could not create item entry. Please try again.", Toast.LENGTH_SHORT).show();
-            Log.e(TAG, "Firebase push().getKey() returned null for new item.");
+    // One line per item, e.g. "3 x eggs"; everything is written in a single updateChildren call
+    private void saveBulkItems() {
+        List<GroceryItem> items = BulkItemParser.parse(etBulkItems.getText().toString());
+        if (items.isEmpty()) {
+            etBulkItems.setError("Enter at least one item.");
             return;
         }
 
-        // Assuming your GroceryItem constructor is: public GroceryItem(String id, String name, int quantity)
-        GroceryItem item = new GroceryItem(newFirebaseKey, name, quantity);
-
-        Log.d(TAG, "Attempting to save NEW item to path: " + userSpecificGroceriesRef.child(newFirebaseKey).toString() + " with data: " + item.toString());
-
-        userSpecificGroceriesRef.child(newFirebaseKey).setValue(item)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(AddEditActivity.this, "Item added successfully!", Toast.LENGTH_SHORT).show();
-                    Log.d(TAG, "Successfully added new item with key: " + newFirebaseKey);
-                    finish(); // Go back to MainActivity
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(AddEditActivity.this, "Save failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    Log.e(TAG, "Failed to save new item to " + userSpecificGroceriesRef.child(newFirebaseKey).toString(), e);
-                });
+        // Saves are optimistic: the list shows them at once and MainActivity reports a rollback
+        repository.saveAll(items);
+        Toast.makeText(this, items.size() + " items added!", Toast.LENGTH_SHORT).show();
+        finish();
     }
 
-    private void updateExistingItem(String itemIdToUpdate, String name, int quantity) {
-        // Assuming your GroceryItem constructor is: public GroceryItem(String id, String name, int quantity)
-        GroceryItem item = new GroceryItem(itemIdToUpdate, name, quantity);
-        // Note: When using setValue() with a POJO that contains an 'id' field,
-        // Firebase will overwrite the entire node at itemIdToUpdate with this new object.
-        // If the 'id' field in your 'item' object (itemIdToUpdate) matches the key of the node being updated,
-        // it's effectively just updating the fields.
+    private void addNewItem(String itemName, int quantity) {
+        String newFirebaseKey = repository.newItemId();
+        if (newFirebaseKey == null) {
+            Toast.makeText(this, "Could not create item entry.", Toast.LENGTH_SHORT).show();
+            Log.e(TAG, "Firebase push().getKey() returned null.");
+            return;
+        }
 
-        Log.d(TAG, "Attempting to UPDATE item at path: " + userSpecificGroceriesRef.child(itemIdToUpdate).toString() + " with data: " + item.toString());
+        GroceryItem item = new GroceryItem(newFirebaseKey, itemName, quantity);
+        repository.save(item);
+        Toast.makeText(this, "Item added successfully!", Toast.LENGTH_SHORT).show();
+        finish(); // No need to wait for Firebase; a rejected save is undone with a notice
+    }
 
-        userSpecificGroceriesRef.child(itemIdToUpdate).setValue(item)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(AddEditActivity.this, "Item updated successfully!", Toast.LENGTH_SHORT).show();
-                    Log.d(TAG, "Successfully updated item with ID: " + itemIdToUpdate);
-                    finish(); // Go back to MainActivity
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(AddEditActivity.this, "Update failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    Log.e(TAG, "Failed to update item at " + userSpecificGroceriesRef.child(itemIdToUpdate).toString(), e);
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-                });
+    private void updateExistingItem(String itemIdToUpdate, String itemName, int quantity) {
+        GroceryItem item = new GroceryItem(itemIdToUpdate, itemName, quantity);
+        repository.save(item);
+        Toast.makeText(this, "Item updated successfully!", Toast.LENGTH_SHORT).show();
+        finish(); // No need to wait for Firebase; a rejected save is undone with a notice
     }
 }
\ No newline at end of file
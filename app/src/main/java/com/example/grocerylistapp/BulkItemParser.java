@@ -0,0 +1,64 @@
+package com.example.grocerylistapp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns pasted or typed multi-line text into grocery items, one per non-blank line.
+ * Understands "3 x eggs", "3x eggs", "3 eggs", "eggs x 3", "eggs x3" and a bare "eggs"
+ * (quantity 1). Leading "-", "*" and bullet characters are ignored. Returned items
+ * have no id yet; keys are assigned when they are saved.
+ */
+public final class BulkItemParser {
+
+    // Caps a single line so a stray long number isn't taken as a quantity
+    static final int MAX_QUANTITY = 999;
+
+    private static final Pattern LEADING_QUANTITY = Pattern.compile("^(\\d{1,3})\\s*[xX\u00d7*]?\\s+(.+)$");
+    private static final Pattern LEADING_QUANTITY_X = Pattern.compile("^(\\d{1,3})\\s*[xX\u00d7*](.+)$");
+    private static final Pattern TRAILING_QUANTITY = Pattern.compile("^(.+?)\\s+[xX\u00d7*]\\s*(\\d{1,3})$");
+    private static final Pattern BULLET = Pattern.compile("^[-*\u2022]\\s*");
+
+    private BulkItemParser() { }
+
+    public static List<GroceryItem> parse(String text) {
+        List<GroceryItem> items = new ArrayList<>();
+        if (text == null) return items;
+        for (String rawLine : text.split("\\r?\\n")) {
+            GroceryItem item = parseLine(rawLine);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /** Returns null for blank lines or lines with no name left after the quantity. */
+    static GroceryItem parseLine(String rawLine) {
+        String line = BULLET.matcher(rawLine.trim()).replaceFirst("").trim();
+        if (line.isEmpty()) return null;
+
+        String name = line;
+        int quantity = 1;
+
+        Matcher m = LEADING_QUANTITY.matcher(line);
+        if (!m.matches()) m = LEADING_QUANTITY_X.matcher(line);
+        if (m.matches()) {
+            quantity = Integer.parseInt(m.group(1));
+            name = m.group(2);
+        } else {
+            m = TRAILING_QUANTITY.matcher(line);
+            if (m.matches()) {
+                name = m.group(1);
+                quantity = Integer.parseInt(m.group(2));
+            }
+        }
+
+        name = name.trim();
+        if (name.isEmpty()) return null;
+        quantity = Math.max(1, Math.min(quantity, MAX_QUANTITY));
+        return new GroceryItem(null, name, quantity);
+    }
+}
@@ -4,21 +4,71 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
+/**
+ * The one place the Firebase singletons are obtained and configured. Each is created on
+ * first use rather than when this class loads, so screens that never touch the database
+ * don't pay for it during startup. Holder classes make the lazy init thread-safe without
+ * locking.
+ */
 public class FirebaseUtils {
-    private static final FirebaseAuth auth = FirebaseAuth.getInstance();
-    private static final FirebaseDatabase db = FirebaseDatabase.getInstance();
 
-    public static FirebaseAuth getAuth() { return auth; }
+    private static final long DATABASE_CACHE_BYTES = 10L * 1024 * 1024;
+
+    // Default ports of the Firebase emulator suite
+    private static final int AUTH_EMULATOR_PORT = 9099;
+    static final int DATABASE_EMULATOR_PORT = 9000; // Also used by the emulator load test
+
+    private static class AuthHolder {
+        static final FirebaseAuth AUTH = createAuth();
+
+        private static FirebaseAuth createAuth() {
+            FirebaseAuth auth = FirebaseAuth.getInstance();
+            if (usesEmulator()) {
+                auth.useEmulator(BuildConfig.FIREBASE_EMULATOR_HOST, AUTH_EMULATOR_PORT);
+            }
+            return auth;
+        }
+    }
+
+    private static class DatabaseHolder {
+        static final FirebaseDatabase DB = createDatabase();
+
+        // Settings only take effect before the first reference is handed out, so they live here
+        private static FirebaseDatabase createDatabase() {
+            FirebaseDatabase db = FirebaseDatabase.getInstance();
+            if (usesEmulator()) {
+                db.useEmulator(BuildConfig.FIREBASE_EMULATOR_HOST, DATABASE_EMULATOR_PORT);
+            }
+            // Queued writes survive process death; the list itself is cached by GroceryRepository
+            db.setPersistenceEnabled(true);
+            db.setPersistenceCacheSizeBytes(DATABASE_CACHE_BYTES);
+            return db;
+        }
+    }
+
+    private static class PathsHolder {
+        static final GroceryPaths PATHS = new GroceryPaths(BuildConfig.GROCERIES_PATH);
+    }
+
+    public static FirebaseAuth getAuth() { return AuthHolder.AUTH; }
+
+    public static FirebaseDatabase getDatabase() { return DatabaseHolder.DB; }
+
+    public static GroceryPaths getPaths() { return PathsHolder.PATHS; }
+
+    static boolean usesEmulator() {
+        return !BuildConfig.FIREBASE_EMULATOR_HOST.isEmpty();
+    }
+
+    /** The canonical node holding uid's grocery items. */
+    public static DatabaseReference groceriesRef(String uid) {
+        return getDatabase().getReference(getPaths().canonical(uid));
+    }
 
     public static DatabaseReference userRef() {
+        FirebaseAuth auth = getAuth();
         if (auth.getCurrentUser() == null)
             throw new IllegalStateException("No user logged in");
-        return db.getReference("users")
-                .child(auth.getCurrentUser().getUid())
-<<<<<<< HEAD
-                .child("Users");
-=======
-                .child("groceries");
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+        return groceriesRef(auth.getCurrentUser().getUid());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.example.grocerylistapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in frame timing for MainActivity's list. Every frame the window reports is recorded in
+ * {@link FrameStats}, tagged with what the list did since the previous frame: a snapshot
+ * applied, rows bound or inflated, a scroll step.
+ *
+ * Off unless the app is built with -PframeMetrics=true or launched with {@link #EXTRA_ENABLED},
+ * which LaunchActivity passes on to MainActivity when a user is signed in, e.g.
+ * {@code adb shell am start -n com.example.grocerylistapp/.LaunchActivity --ez FRAME_METRICS true}.
+ * The summary is dumped to logcat under {@link #TAG} and to frame-metrics.txt in the app's
+ * external files directory whenever the activity is paused.
+ *
+ * Main thread only; frame reports are delivered there too, so tags need no locking.
+ */
+final class FrameMetricsRecorder implements Window.OnFrameMetricsAvailableListener {
+
+    static final String TAG = "FrameMetrics";
+    static final String EXTRA_ENABLED = "FRAME_METRICS";
+    static final String SUMMARY_FILE = "frame-metrics.txt";
+
+    private static final Executor fileExecutor = Executors.newSingleThreadExecutor();
+
+    private final FrameStats stats = new FrameStats();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Per tag, when it was first and last marked since a frame last took it; 0 when not pending.
+    // A report can arrive after the next frame's work has started, so marks newer than the
+    // reported frame stay pending for the frame after it.
+    private final long[] firstMarked = new long[FrameStats.TAG_COUNT];
+    private final long[] lastMarked = new long[FrameStats.TAG_COUNT];
+    private Window window;
+
+    static boolean isEnabled(Intent intent) {
+        return BuildConfig.FRAME_METRICS || intent.getBooleanExtra(EXTRA_ENABLED, false);
+    }
+
+    void start(Window window) {
+        if (this.window != null) return;
+        this.window = window;
+        window.addOnFrameMetricsAvailableListener(this, mainHandler);
+    }
+
+    void stop() {
+        if (window == null) return;
+        window.removeOnFrameMetricsAvailableListener(this);
+        window = null;
+    }
+
+    /** Tags the frame being built with tag, one of the FrameStats.TAG_ constants. */
+    void mark(int tag) {
+        long now = System.nanoTime();
+        if (firstMarked[tag] == 0) firstMarked[tag] = now;
+        lastMarked[tag] = now;
+    }
+
+    @Override
+    public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+        long duration = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        // Vsync timestamps share System.nanoTime's clock
+        long frameEnd = frameMetrics.getMetric(FrameMetrics.INTENDED_VSYNC_TIMESTAMP) + duration;
+        int tagMask = 0;
+        for (int tag = 0; tag < FrameStats.TAG_COUNT; tag++) {
+            if (firstMarked[tag] == 0 || firstMarked[tag] > frameEnd) continue;
+            tagMask |= 1 << tag;
+            if (lastMarked[tag] <= frameEnd) {
+                firstMarked[tag] = 0;
+                lastMarked[tag] = 0;
+            } else {
+                firstMarked[tag] = frameEnd + 1;
+            }
+        }
+        stats.addDropped(dropCountSinceLastInvocation);
+        stats.record(duration, frameMetrics.getMetric(FrameMetrics.DEADLINE), tagMask);
+    }
+
+    /** Logs the summary and writes it to the external files directory; recording carries on. */
+    void dump(Context context) {
+        String summary = stats.summary();
+        for (String line : summary.split("\n")) {
+            Log.i(TAG, line);
+        }
+        File dir = context.getExternalFilesDir(null);
+        if (dir == null) return;
+        File file = new File(dir, SUMMARY_FILE);
+        fileExecutor.execute(() -> {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(summary.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                Log.w(TAG, "Couldn't write " + file, e);
+            }
+        });
+    }
+}
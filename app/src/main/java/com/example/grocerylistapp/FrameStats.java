@@ -0,0 +1,107 @@
+package com.example.grocerylistapp;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Per-frame durations for the grocery list, each tagged with what happened in that frame,
+ * and the summary FrameMetricsRecorder dumps. A frame is janky when it took longer than its
+ * deadline. Recording stops at {@link #MAX_FRAMES} so a forgotten session can't grow without
+ * bound; the summary says when that happened.
+ *
+ * Not thread-safe; FrameMetricsRecorder only uses it on the main thread.
+ */
+final class FrameStats {
+
+    static final int TAG_SNAPSHOT = 0; // A new list was applied to the adapter
+    static final int TAG_BIND = 1;
+    static final int TAG_INFLATE = 2; // A row was inflated on the main thread
+    static final int TAG_SCROLL = 3;
+    static final int TAG_COUNT = 4;
+    private static final String[] TAG_NAMES = {"snapshot", "bind", "inflate", "scroll"};
+
+    static final int MAX_FRAMES = 36_000; // Ten minutes at 60 fps
+
+    private long[] durations = new long[256];
+    private long[] deadlines = new long[256];
+    private int[] tagMasks = new int[256];
+    private int count;
+    private int dropped; // Frames past MAX_FRAMES, plus any the platform didn't report
+
+    /** Adds a frame; tagMask has bit (1 << TAG_x) set for each tag that applies. */
+    void record(long durationNanos, long deadlineNanos, int tagMask) {
+        if (count == MAX_FRAMES) {
+            dropped++;
+            return;
+        }
+        if (count == durations.length) {
+            int capacity = Math.min(count * 2, MAX_FRAMES);
+            durations = Arrays.copyOf(durations, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            tagMasks = Arrays.copyOf(tagMasks, capacity);
+        }
+        durations[count] = durationNanos;
+        deadlines[count] = deadlineNanos;
+        tagMasks[count] = tagMask;
+        count++;
+    }
+
+    void addDropped(int frames) {
+        dropped += frames;
+    }
+
+    int frameCount() {
+        return count;
+    }
+
+    /** Frames over their deadline; tag < 0 counts all frames, otherwise only frames with that tag. */
+    int jankCount(int tag) {
+        int janky = 0;
+        for (int i = 0; i < count; i++) {
+            if (matches(i, tag) && durations[i] > deadlines[i]) janky++;
+        }
+        return janky;
+    }
+
+    /** One line for all frames, then one per tag that was seen. Durations are in milliseconds. */
+    String summary() {
+        StringBuilder out = new StringBuilder();
+        appendLine(out, "all", -1);
+        for (int tag = 0; tag < TAG_COUNT; tag++) {
+            appendLine(out, TAG_NAMES[tag], tag);
+        }
+        if (dropped > 0) {
+            out.append("unrecorded frames=").append(dropped).append('\n');
+        }
+        return out.toString();
+    }
+
+    private void appendLine(StringBuilder out, String name, int tag) {
+        long[] selected = new long[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (matches(i, tag)) selected[n++] = durations[i];
+        }
+        if (n == 0 && tag >= 0) return;
+        Arrays.sort(selected, 0, n);
+        out.append(String.format(Locale.US, "%s frames=%d janky=%d p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                name, n, jankCount(tag),
+                millis(percentile(selected, n, 50)), millis(percentile(selected, n, 90)),
+                millis(percentile(selected, n, 99)), millis(n > 0 ? selected[n - 1] : 0)));
+    }
+
+    private boolean matches(int frame, int tag) {
+        return tag < 0 || (tagMasks[frame] & (1 << tag)) != 0;
+    }
+
+    // Nearest-rank percentile of the first n values of sorted
+    static long percentile(long[] sorted, int n, int percent) {
+        if (n == 0) return 0;
+        int rank = (int) Math.ceil(percent / 100.0 * n);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -7,7 +7,9 @@ import android.view.ViewGroup;
 import android.widget.Button; // Using Button as per your XML
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,10 +18,18 @@ public class GroceryAdapter extends RecyclerView.Adapter<GroceryAdapter.GroceryV
     public interface OnItemActionListener {
         void onEdit(GroceryItem item);
         void onDelete(GroceryItem item);
+        void onQuantityStep(GroceryItem item, int delta);
     }
 
+    static final int VIEW_TYPE_ITEM = 0;
+
     private List<GroceryItem> groceryItemsList;
     private OnItemActionListener actionListener;
+    private int diffGeneration; // Bumped on every setItems so stale diffs are dropped
+    private final StableIds stableIds = new StableIds();
+    private final QuantityLabels quantityLabels = new QuantityLabels();
+    private FrameMetricsRecorder frameMetrics; // Null unless frame metrics are switched on
+    private final ArrayDeque<View> inflatedRows = new ArrayDeque<>(); // From GroceryRowPool, not yet in a holder
 
     public GroceryAdapter(List<GroceryItem> initialItems, OnItemActionListener listener) {
         this.groceryItemsList = new ArrayList<>(); // Initialize to avoid null
@@ -27,22 +37,76 @@ public class GroceryAdapter extends RecyclerView.Adapter<GroceryAdapter.GroceryV
             this.groceryItemsList.addAll(initialItems);
         }
         this.actionListener = listener;
+        // Rows are identified by their Firebase key, so holders and animations survive list swaps
+        setHasStableIds(true);
+    }
+
+    /** Tags frames with the adapter's binds, main-thread inflations and applied lists. */
+    void setFrameMetrics(FrameMetricsRecorder recorder) {
+        frameMetrics = recorder;
+    }
+
+    private void markFrame(int tag) {
+        if (frameMetrics != null) {
+            frameMetrics.mark(tag);
+        }
     }
 
+    /**
+     * Replaces the list with newItems. The diff against the current list is computed on a
+     * background thread and only the resulting insert/remove/move/change notifications are
+     * dispatched, so unchanged rows are not rebound and item animations keep working.
+     */
     public void setItems(List<GroceryItem> newItems) {
-        this.groceryItemsList.clear();
-        if (newItems != null) {
-            this.groceryItemsList.addAll(newItems);
+        final int generation = ++diffGeneration;
+        // The adapter's list is only ever replaced, never edited, so neither side needs copying.
+        // Callers must not modify newItems afterwards; the repository hands over read-only lists.
+        final List<GroceryItem> oldSnapshot = groceryItemsList;
+        final List<GroceryItem> newSnapshot = newItems != null ? newItems : new ArrayList<>();
+
+        // Cheap paths that don't need a diff at all
+        if (oldSnapshot.isEmpty() || newSnapshot.isEmpty()) {
+            int oldSize = oldSnapshot.size();
+            groceryItemsList = newSnapshot;
+            markFrame(FrameStats.TAG_SNAPSHOT);
+            if (oldSize > 0) {
+                notifyItemRangeRemoved(0, oldSize);
+            }
+            if (!newSnapshot.isEmpty()) {
+                notifyItemRangeInserted(0, newSnapshot.size());
+            }
+            return;
         }
-        notifyDataSetChanged();
+
+        // Diffs share the pipeline thread with parsing; only the latest result is applied
+        GroceryPipeline.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new GroceryDiffCallback(oldSnapshot, newSnapshot));
+            GroceryPipeline.postToMain(() -> {
+                if (generation != diffGeneration) {
+                    return; // A newer list was submitted while this diff was running
+                }
+                groceryItemsList = newSnapshot;
+                markFrame(FrameStats.TAG_SNAPSHOT);
+                result.dispatchUpdatesTo(GroceryAdapter.this);
+            });
+        });
     }
 
     @NonNull
     @Override
     public GroceryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_grocery, parent, false);
-        return new GroceryViewHolder(view);
+        View view = inflatedRows.poll();
+        if (view == null) {
+            markFrame(FrameStats.TAG_INFLATE);
+            view = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_grocery, parent, false);
+        }
+        return new GroceryViewHolder(view, this);
+    }
+
+    /** Hands over a row inflated elsewhere; the next holder created wraps it instead of inflating. */
+    void offerInflatedRow(View row) {
+        inflatedRows.add(row);
     }
 
     @Override
@@ -51,8 +115,21 @@ public class GroceryAdapter extends RecyclerView.Adapter<GroceryAdapter.GroceryV
             Log.e("GroceryAdapter", "Invalid position or list state: " + position);
             return;
         }
-        GroceryItem currentItem = groceryItemsList.get(position);
-        holder.bind(currentItem, actionListener);
+        markFrame(FrameStats.TAG_BIND);
+        holder.bind(groceryItemsList.get(position), quantityLabels);
+    }
+
+    // The item a holder's click belongs to, or null if the row is being removed or re-laid out
+    private GroceryItem itemAt(int position) {
+        if (position == RecyclerView.NO_POSITION || position >= groceryItemsList.size()) {
+            return null;
+        }
+        return groceryItemsList.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idFor(groceryItemsList.get(position).getId());
     }
 
     @Override
@@ -60,48 +137,108 @@ public class GroceryAdapter extends RecyclerView.Adapter<GroceryAdapter.GroceryV
         return groceryItemsList == null ? 0 : groceryItemsList.size();
     }
 
-    static class GroceryViewHolder extends RecyclerView.ViewHolder {
+    // Rows are the same item when their Firebase keys match, and unchanged when all fields match
+    private static class GroceryDiffCallback extends DiffUtil.Callback {
+        private final List<GroceryItem> oldItems;
+        private final List<GroceryItem> newItems;
+
+        GroceryDiffCallback(List<GroceryItem> oldItems, List<GroceryItem> newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            String oldId = oldItems.get(oldItemPosition).getId();
+            return oldId != null && oldId.equals(newItems.get(newItemPosition).getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldItems.get(oldItemPosition).equals(newItems.get(newItemPosition));
+        }
+    }
+
+    /**
+     * Binding allocates nothing once the quantity labels are cached: the holder is its own
+     * click listener, set once, and looks the item up by adapter position when clicked.
+     */
+    static class GroceryViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        private final GroceryAdapter adapter;
         TextView tvItemName;
         TextView tvItemQuantity;
         Button btnEdit;    // Changed to Button
         Button btnDelete;  // Changed to Button
+        Button btnDecrement;
+        Button btnIncrement;
+        private boolean showingError; // Only then do the buttons need showing again
 
-        GroceryViewHolder(View itemView) {
+        GroceryViewHolder(View itemView, GroceryAdapter adapter) {
             super(itemView);
+            this.adapter = adapter;
             // These IDs MUST match what's in item_grocery.xml
             tvItemName = itemView.findViewById(R.id.tvItemName);
             tvItemQuantity = itemView.findViewById(R.id.tvItemQuantity);
             btnEdit = itemView.findViewById(R.id.btnEditItem);
             btnDelete = itemView.findViewById(R.id.btnDeleteItem);
+            btnDecrement = itemView.findViewById(R.id.btnDecrement);
+            btnIncrement = itemView.findViewById(R.id.btnIncrement);
+            btnEdit.setOnClickListener(this);
+            btnDelete.setOnClickListener(this);
+            btnDecrement.setOnClickListener(this);
+            btnIncrement.setOnClickListener(this);
         }
 
-        void bind(final GroceryItem item, final OnItemActionListener listener) {
+        void bind(final GroceryItem item, QuantityLabels labels) {
             if (item == null) {
                 Log.e("GroceryViewHolder", "Item is null in bind");
                 tvItemName.setText("Error");
                 tvItemQuantity.setText("");
-                btnEdit.setVisibility(View.GONE);
-                btnDelete.setVisibility(View.GONE);
+                setButtonsVisibility(View.GONE);
+                showingError = true;
                 return;
             }
+            if (showingError) {
+                setButtonsVisibility(View.VISIBLE);
+                showingError = false;
+            }
 
-            btnEdit.setVisibility(View.VISIBLE);
-            btnDelete.setVisibility(View.VISIBLE);
-
-<<<<<<< HEAD
+            btnDecrement.setEnabled(item.getQuantity() > 1);
             tvItemName.setText(item.getItem());
-=======
-            tvItemName.setText(item.getName());
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-            tvItemQuantity.setText("Qty: " + item.getQuantity());
-
-            if (listener != null) {
-                btnEdit.setOnClickListener(v -> listener.onEdit(item));
-                btnDelete.setOnClickListener(v -> listener.onDelete(item));
-            } else {
-                btnEdit.setOnClickListener(null);
-                btnDelete.setOnClickListener(null);
+            tvItemQuantity.setText(labels.forQuantity(item.getQuantity()));
+        }
+
+        private void setButtonsVisibility(int visibility) {
+            btnEdit.setVisibility(visibility);
+            btnDelete.setVisibility(visibility);
+            btnDecrement.setVisibility(visibility);
+            btnIncrement.setVisibility(visibility);
+        }
+
+        @Override
+        public void onClick(View v) {
+            OnItemActionListener listener = adapter.actionListener;
+            GroceryItem item = adapter.itemAt(getBindingAdapterPosition());
+            if (listener == null || item == null) return;
+            if (v == btnEdit) {
+                listener.onEdit(item);
+            } else if (v == btnDelete) {
+                listener.onDelete(item);
+            } else if (v == btnDecrement) {
+                listener.onQuantityStep(item, -1);
+            } else if (v == btnIncrement) {
+                listener.onQuantityStep(item, 1);
             }
         }
     }
-}
\ No newline at end of file
+}
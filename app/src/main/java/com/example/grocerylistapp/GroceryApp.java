@@ -0,0 +1,17 @@
+package com.example.grocerylistapp;
+
+import android.app.Application;
+
+/**
+ * Only exists to mark the start of the process in traces. Keep onCreate empty of real
+ * work: Firebase is initialized lazily by {@link FirebaseUtils} when a screen needs it.
+ */
+public class GroceryApp extends Application {
+
+    @Override
+    public void onCreate() {
+        StartupTrace.begin(StartupTrace.APP_START);
+        super.onCreate();
+        StartupTrace.end(StartupTrace.APP_START);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.grocerylistapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * On-device copy of each user's grocery items, so the list can be shown before Firebase
+ * has delivered anything. Rows are keyed by (uid, id). All methods do disk IO and must
+ * be called off the main thread.
+ *
+ * Each item's name is also split into words (see {@link GroceryNameIndex#words}) in a
+ * second table keyed by (uid, word), so a search is a range scan of that key per query
+ * word and never needs the whole list in memory.
+ */
+public class GroceryDbHelper extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "groceries.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_ITEMS = "grocery_items";
+    private static final String COLUMN_UID = "uid";
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_ITEM = "item";
+    private static final String COLUMN_QUANTITY = "quantity";
+
+    private static final String TABLE_WORDS = "grocery_words";
+    private static final String COLUMN_WORD = "word";
+
+    public GroceryDbHelper(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ITEMS + " ("
+                + COLUMN_UID + " TEXT NOT NULL, "
+                + COLUMN_ID + " TEXT NOT NULL, "
+                + COLUMN_ITEM + " TEXT, "
+                + COLUMN_QUANTITY + " INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (" + COLUMN_UID + ", " + COLUMN_ID + "))");
+        db.execSQL("CREATE TABLE " + TABLE_WORDS + " ("
+                + COLUMN_UID + " TEXT NOT NULL, "
+                + COLUMN_WORD + " TEXT NOT NULL, "
+                + COLUMN_ID + " TEXT NOT NULL, "
+                + "PRIMARY KEY (" + COLUMN_UID + ", " + COLUMN_WORD + ", " + COLUMN_ID + "))");
+        // For replacing and deleting one item's words
+        db.execSQL("CREATE INDEX " + TABLE_WORDS + "_by_item ON " + TABLE_WORDS
+                + " (" + COLUMN_UID + ", " + COLUMN_ID + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // It's only a cache of what's in Firebase, so it's safe to rebuild
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ITEMS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_WORDS);
+        onCreate(db);
+    }
+
+    /** The first limit cached items for uid in mode's display order. */
+    public List<GroceryItem> loadItems(String uid, GrocerySortMode mode, int limit) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_ITEMS,
+                new String[]{COLUMN_ID, COLUMN_ITEM, COLUMN_QUANTITY},
+                COLUMN_UID + " = ?", new String[]{uid},
+                null, null, orderBy(mode), String.valueOf(limit))) {
+            return readItems(cursor);
+        }
+    }
+
+    // Same as mode.comparator: SQLite's default text order is binary, like Firebase's
+    private static String orderBy(GrocerySortMode mode) {
+        switch (mode) {
+            case RECENT:
+                return COLUMN_ID + " DESC";
+            case NAME:
+                return COLUMN_ITEM + ", " + COLUMN_ID;
+            case QUANTITY:
+                return COLUMN_QUANTITY + " DESC, " + COLUMN_ID + " DESC";
+            default:
+                return COLUMN_ID;
+        }
+    }
+
+    /**
+     * Up to limit cached items for uid whose names match query, in key order. Matching is
+     * the same as {@link GroceryNameIndex#search}; a blank query matches nothing.
+     */
+    public List<GroceryItem> searchItems(String uid, String query, int limit) {
+        String[] words = GroceryNameIndex.words(query);
+        if (words.length == 0) return new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMN_ID + ", " + COLUMN_ITEM + ", " + COLUMN_QUANTITY
+                + " FROM " + TABLE_ITEMS + " WHERE " + COLUMN_UID + " = ?");
+        List<String> args = new ArrayList<>();
+        args.add(uid);
+        for (String word : words) {
+            // Every word starting with it sorts between it and it + the largest char
+            sql.append(" AND " + COLUMN_ID + " IN (SELECT " + COLUMN_ID + " FROM " + TABLE_WORDS
+                    + " WHERE " + COLUMN_UID + " = ? AND " + COLUMN_WORD + " >= ? AND " + COLUMN_WORD + " < ?)");
+            args.add(uid);
+            args.add(word);
+            args.add(word + Character.MAX_VALUE);
+        }
+        sql.append(" ORDER BY " + COLUMN_ID + " LIMIT " + limit);
+        try (Cursor cursor = getReadableDatabase().rawQuery(sql.toString(), args.toArray(new String[0]))) {
+            return readItems(cursor);
+        }
+    }
+
+    private static List<GroceryItem> readItems(Cursor cursor) {
+        List<GroceryItem> items = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            items.add(new GroceryItem(cursor.getString(0), cursor.getString(1), cursor.getInt(2)));
+        }
+        return items;
+    }
+
+    public void upsertItem(String uid, GroceryItem item) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_UID, uid);
+        values.put(COLUMN_ID, item.getId());
+        values.put(COLUMN_ITEM, item.getItem());
+        values.put(COLUMN_QUANTITY, item.getQuantity());
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.insertWithOnConflict(TABLE_ITEMS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            deleteWords(db, uid, item.getId());
+            for (String word : GroceryNameIndex.words(item.getItem())) {
+                ContentValues wordValues = new ContentValues();
+                wordValues.put(COLUMN_UID, uid);
+                wordValues.put(COLUMN_WORD, word);
+                wordValues.put(COLUMN_ID, item.getId());
+                db.insert(TABLE_WORDS, null, wordValues);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void deleteItems(String uid, Collection<String> ids) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String id : ids) {
+                db.delete(TABLE_ITEMS, COLUMN_UID + " = ? AND " + COLUMN_ID + " = ?", new String[]{uid, id});
+                deleteWords(db, uid, id);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Every cached row, the user's own list and any shared ones alike; for signing out. */
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_ITEMS, null, null);
+            db.delete(TABLE_WORDS, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static void deleteWords(SQLiteDatabase db, String uid, String id) {
+        db.delete(TABLE_WORDS, COLUMN_UID + " = ? AND " + COLUMN_ID + " = ?", new String[]{uid, id});
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.grocerylistapp;
 
+import java.util.Map;
+import java.util.Objects;
+
 public class GroceryItem {
-<<<<<<< HEAD
     // FIX 1: Renamed variable to follow Java conventions (lowercase start)
     private String id;
     private String item; // Was "Item"
     private int quantity;
+    // Whether the stored node has the compact "n" and "q" children, which are all the server
+    // can sort by. Anything not read from the database is written compact, so both start true.
+    private boolean storesName = true;
+    private boolean storesQuantity = true;
 
     // Default constructor is required for Firebase DataSnapshot.getValue(GroceryItem.class)
     public GroceryItem() { }
@@ -43,32 +49,43 @@ public class GroceryItem {
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
-}
-=======
-    private String id;
-    private String name;
-    private int quantity;
-
-
-    public GroceryItem() { }
-
 
-    public GroceryItem(String id, String name, int quantity) {
-        this.id = id;
-        this.name = name;
-        this.quantity = quantity;
+    boolean storesName() {
+        return storesName;
     }
 
+    boolean storesQuantity() {
+        return storesQuantity;
+    }
 
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    void setStoredFields(boolean storesName, boolean storesQuantity) {
+        this.storesName = storesName;
+        this.storesQuantity = storesQuantity;
+    }
 
+    // Not part of equals(), which is about what's shown
+    boolean sameStoredFields(GroceryItem other) {
+        return storesName == other.storesName && storesQuantity == other.storesQuantity;
+    }
 
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    // The stored form, without going through Firebase's reflective mapper
+    public Map<String, Object> toMap() {
+        return GroceryItemCodec.encode(this);
+    }
 
+    // Content equality, used by GroceryAdapter's diff to decide whether a row needs rebinding
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GroceryItem)) return false;
+        GroceryItem other = (GroceryItem) o;
+        return quantity == other.quantity
+                && Objects.equals(id, other.id)
+                && Objects.equals(item, other.item);
+    }
 
-    public int getQuantity() { return quantity; }
-    public void setQuantity(int quantity) { this.quantity = quantity; }
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, item, quantity);
+    }
 }
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
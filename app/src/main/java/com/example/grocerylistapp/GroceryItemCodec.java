@@ -0,0 +1,105 @@
+package com.example.grocerylistapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hand-written mapping between raw Realtime Database values and {@link GroceryItem}.
+ * Replaces DataSnapshot.getValue(GroceryItem.class), which goes through reflection and
+ * bean introspection for every child. Falls back to defaults for missing or malformed
+ * fields instead of throwing.
+ *
+ * Items are written in a compact layout, {"v": 2, "n": name, "q": quantity}: one-letter
+ * keys, no copy of the id (it is the node key) and a schema version for future changes.
+ * Every older layout is still read: version 1's "id"/"item"/"quantity", the older "name"
+ * and the original "Item". Compact fields win when a node has both, so a quantity-only
+ * update ("q") to an old node reads correctly without rewriting the rest of it.
+ */
+public final class GroceryItemCodec {
+
+    public static final String KEY_VERSION = "v";
+    public static final String KEY_NAME = "n";
+    public static final String KEY_QUANTITY = "q";
+    public static final int SCHEMA_VERSION = 2;
+
+    // Version 1, the shape setValue(GroceryItem) produced
+    static final String V1_KEY_ID = "id";
+    static final String V1_KEY_ITEM = "item";
+    static final String V1_KEY_QUANTITY = "quantity";
+
+    // Field names written by older versions of GroceryItem
+    static final String LEGACY_KEY_NAME = "name";
+    static final String LEGACY_KEY_ITEM = "Item";
+
+    private GroceryItemCodec() { }
+
+    /**
+     * Builds an item from the raw value of a child node (snapshot.getValue()).
+     * Returns null when the node is not an object, e.g. a stray primitive under the user node.
+     */
+    public static GroceryItem decode(String key, Object raw) {
+        if (!(raw instanceof Map)) {
+            return null;
+        }
+        Map<?, ?> map = (Map<?, ?>) raw;
+
+        Object name = map.get(KEY_NAME);
+        if (name == null) name = map.get(V1_KEY_ITEM);
+        if (name == null) name = map.get(LEGACY_KEY_NAME);
+        if (name == null) name = map.get(LEGACY_KEY_ITEM);
+
+        Object quantity = map.get(KEY_QUANTITY);
+        if (quantity == null) quantity = map.get(V1_KEY_QUANTITY);
+
+        GroceryItem item = new GroceryItem(key, name != null ? name.toString() : null, toInt(quantity));
+        item.setStoredFields(map.get(KEY_NAME) != null, map.get(KEY_QUANTITY) != null);
+        return item;
+    }
+
+    /**
+     * Whether raw is an item node that isn't purely in the compact layout: an older layout,
+     * or one partly updated with compact fields. Such nodes read fine but don't have the "n"
+     * and "q" children the server orders by, so {@link GroceryMigration} rewrites them.
+     */
+    public static boolean isOutdated(Object raw) {
+        if (!(raw instanceof Map)) return false;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        return toInt(map.get(KEY_VERSION)) < SCHEMA_VERSION
+                || map.containsKey(V1_KEY_ID) || map.containsKey(V1_KEY_ITEM) || map.containsKey(V1_KEY_QUANTITY)
+                || map.containsKey(LEGACY_KEY_NAME) || map.containsKey(LEGACY_KEY_ITEM);
+    }
+
+    /** Value to pass to setValue()/updateChildren() when storing an item, in the compact layout. */
+    public static Map<String, Object> encode(GroceryItem item) {
+        Map<String, Object> map = new HashMap<>(4);
+        map.put(KEY_VERSION, SCHEMA_VERSION);
+        map.put(KEY_NAME, item.getItem());
+        map.put(KEY_QUANTITY, item.getQuantity());
+        return map;
+    }
+
+    // The database hands back whole numbers as Long and decimals as Double
+    static int toInt(Object value) {
+        if (value instanceof Number) {
+            long l = ((Number) value).longValue();
+            if (l > Integer.MAX_VALUE) return Integer.MAX_VALUE;
+            if (l < Integer.MIN_VALUE) return Integer.MIN_VALUE;
+            return (int) l;
+        }
+        if (value instanceof String) {
+            // Parsed by hand so a bad value costs a default, not an exception
+            String s = ((String) value).trim();
+            boolean negative = s.startsWith("-");
+            int start = negative || s.startsWith("+") ? 1 : 0;
+            if (start == s.length() || s.length() - start > 10) return 0;
+            long result = 0;
+            for (int i = start; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') return 0;
+                result = result * 10 + (c - '0');
+            }
+            return toInt(negative ? -result : result);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,596 @@
+package com.example.grocerylistapp;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps an in-memory window of a user's grocery node in sync using child-level events.
+ * Each add/change/remove only parses the child that changed, instead of re-reading the
+ * whole node.
+ *
+ * The node is read in pages of the current {@link GrocerySortMode}'s Firebase order
+ * (limitToFirst/startAfter, or limitToLast/endBefore for modes read from the end), each with
+ * its own listener. More pages are attached as the list scrolls, and once more than
+ * {@link #MAX_PAGES} are attached the page furthest from the scroll direction is evicted,
+ * so memory stays bounded however many items the user keeps. "Next" and "previous" are in
+ * the order shown, so scrolling down always reaches further into the list.
+ *
+ * Firebase delivers events on the main thread; they are handed straight to the
+ * {@link GroceryPipeline} thread, which owns the store and does all parsing. After a batch
+ * of changes the full list is published back to the main thread, and a list that has
+ * already been superseded by a newer one is dropped rather than delivered.
+ *
+ * While a filter is set, the published list is the items whose names match it. Matches in
+ * the window come from a {@link GroceryNameIndex} over the items it holds, updated with
+ * every change; matches outside it are asked of {@link Listener#findStoredItems} (the local
+ * cache) once per filter, at most {@link #MAX_SEARCH_RESULTS} of them. Neither grows with
+ * the size of the list.
+ *
+ * A second, display-ordered copy of the store is kept alongside the key-ordered one and
+ * updated by binary insertion on each change, so a single change needs no re-sort. A change
+ * of mode re-sorts what's held straight away, then reloads the window from the start of the
+ * new order, since what's held was a run of the old one.
+ */
+public class GroceryListSync {
+
+    private static final String TAG = "GroceryListSync";
+
+    public static final int PAGE_SIZE = 50;
+    static final int MAX_PAGES = 4;
+    // Matches kept from outside the window; as many as the window itself holds
+    static final int MAX_SEARCH_RESULTS = PAGE_SIZE * MAX_PAGES;
+
+    public interface Listener {
+        /** Pipeline thread. An item was added or changed on the server. */
+        void onItemStored(GroceryItem item);
+
+        /** Pipeline thread. A seeded item the server no longer has, or one deleted elsewhere. */
+        void onStaleItemDropped(GroceryItem item);
+
+        /**
+         * Pipeline thread. Up to limit stored items whose names match query, in key order, so
+         * a search can reach items outside the attached pages.
+         */
+        List<GroceryItem> findStoredItems(String query, int limit);
+
+        /** Main thread. The latest list in display order, filtered if a filter is set. */
+        void onItemsPublished(List<GroceryItem> items, Map<String, GroceryItem> itemsById);
+
+        /** Main thread. */
+        void onSyncError(DatabaseError error);
+    }
+
+    // --- Pipeline thread only ---
+    // Items ordered by key, for lookups; independent of the sort mode
+    private final List<GroceryItem> items = new ArrayList<>();
+    private final Map<String, GroceryItem> itemsById = new HashMap<>();
+    // The same items in the order they're shown in
+    private final OrderedItems displayItems = new OrderedItems(GrocerySortMode.ADDED.comparator);
+    private GrocerySortMode sortMode = GrocerySortMode.ADDED;
+    // Neighbouring limitToFirst pages can briefly overlap, so an item stays until no page holds it
+    private final Map<String, Integer> pageRefCounts = new HashMap<>();
+    private final List<Page> pages = new ArrayList<>(); // In display order
+    private final GroceryNameIndex nameIndex = new GroceryNameIndex(); // Over the items above only
+    @Nullable
+    private String filterQuery; // Null when showing everything
+    // Stored matches for filterQuery that aren't in the window, by id
+    private final Map<String, GroceryItem> searchMatches = new HashMap<>();
+    private DatabaseReference ref;
+    private boolean seeded;
+    private boolean hasMoreBefore;
+    private boolean loading;
+    private boolean publishPending;
+
+    private final Listener listener;
+    // Bumped for every list handed to the main thread, and by stop(); only the latest is applied
+    private final AtomicInteger publishGeneration = new AtomicInteger();
+
+    public GroceryListSync(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replaces the store with previously known items (e.g. from the local cache) and publishes
+     * them, then attaches the first page of ref. Seeded items the first page doesn't confirm
+     * are dropped once it has loaded.
+     */
+    public void start(DatabaseReference ref, List<GroceryItem> seedItems) {
+        GroceryPipeline.execute(() -> {
+            detachAll();
+            nameIndex.clear();
+            seed(seedItems);
+            findMatches();
+            schedulePublish();
+            this.ref = ref;
+            attachFirstPage();
+        });
+    }
+
+    /** Detaches every page and publishes an empty list, superseding anything still in flight. */
+    public void stop() {
+        publishGeneration.incrementAndGet();
+        GroceryPipeline.execute(() -> {
+            detachAll();
+            items.clear();
+            itemsById.clear();
+            displayItems.clear();
+            nameIndex.clear();
+            filterQuery = null;
+            searchMatches.clear();
+            seeded = false;
+            schedulePublish();
+        });
+    }
+
+    /** Shows only items whose names match query; a blank or null query shows everything. */
+    public void setFilter(@Nullable String query) {
+        final String normalized = query == null || GroceryNameIndex.words(query).length == 0 ? null : query;
+        GroceryPipeline.execute(() -> {
+            filterQuery = normalized;
+            findMatches();
+            schedulePublish();
+        });
+    }
+
+    /**
+     * Re-orders what's already held into mode at once, then replaces the window with the first
+     * page of mode. Held items the new page doesn't confirm are dropped once it has loaded.
+     */
+    public void setSortMode(GrocerySortMode mode) {
+        GroceryPipeline.execute(() -> {
+            if (mode == sortMode) return;
+            sortMode = mode;
+            displayItems.setComparator(mode.comparator);
+            schedulePublish();
+            if (ref == null) return;
+            DatabaseReference current = ref;
+            detachAll();
+            ref = current;
+            seeded = !items.isEmpty();
+            attachFirstPage();
+        });
+    }
+
+    /**
+     * Shows a local add or edit before Firebase has confirmed it, e.g. while quantity taps are
+     * being coalesced or a save is in flight. The server's echo later confirms or replaces it.
+     */
+    public void applyLocal(GroceryItem item) {
+        GroceryPipeline.execute(() -> {
+            if (searchMatches.containsKey(item.getId())) {
+                // Only reachable through a search result; not part of any attached page
+                searchMatches.put(item.getId(), item);
+                listener.onItemStored(item);
+                schedulePublish();
+                return;
+            }
+            upsert(item);
+        });
+    }
+
+    /** Hides an item locally before Firebase has confirmed its deletion. */
+    public void removeLocal(String id) {
+        GroceryPipeline.execute(() -> {
+            int position = indexOf(id);
+            if (position >= 0) {
+                removeAt(position);
+            }
+            if (searchMatches.remove(id) != null) {
+                schedulePublish();
+            }
+        });
+    }
+
+    /** Attaches the page after the last one, evicting the first page if too many are held. */
+    public void loadNextPage() {
+        GroceryPipeline.execute(() -> {
+            if (ref == null || loading || pages.isEmpty()) return;
+            Page last = pages.get(pages.size() - 1);
+            if (!last.loaded || last.keys.size() < PAGE_SIZE) return; // Reached the end
+            GroceryItem bound = last.bound(false);
+            if (bound == null) return;
+            Query ordered = ordered();
+            attach(new Page(sortMode.fromEnd
+                    ? endBefore(ordered, bound).limitToLast(PAGE_SIZE)
+                    : startAfter(ordered, bound).limitToFirst(PAGE_SIZE), false), false);
+            if (pages.size() > MAX_PAGES) {
+                evict(pages.remove(0));
+                hasMoreBefore = true;
+            }
+        });
+    }
+
+    /** Re-attaches the page before the first one after it has been evicted. */
+    public void loadPreviousPage() {
+        GroceryPipeline.execute(() -> {
+            if (ref == null || loading || pages.isEmpty() || !hasMoreBefore) return;
+            Page first = pages.get(0);
+            if (!first.loaded) return;
+            GroceryItem bound = first.bound(true);
+            if (bound == null) return;
+            Query ordered = ordered();
+            attach(new Page(sortMode.fromEnd
+                    ? startAfter(ordered, bound).limitToFirst(PAGE_SIZE)
+                    : endBefore(ordered, bound).limitToLast(PAGE_SIZE), true), true);
+            if (pages.size() > MAX_PAGES) {
+                evict(pages.remove(pages.size() - 1));
+            }
+        });
+    }
+
+    private void seed(List<GroceryItem> seedItems) {
+        items.clear();
+        itemsById.clear();
+        for (GroceryItem item : seedItems) {
+            if (item == null || item.getId() == null || itemsById.containsKey(item.getId())) continue;
+            items.add(item);
+            itemsById.put(item.getId(), item);
+            nameIndex.put(item);
+        }
+        Collections.sort(items, GrocerySortMode.ADDED.comparator);
+        displayItems.setAll(items);
+        seeded = !items.isEmpty();
+    }
+
+    // Looks the filter up in the listener's store; what the window holds is searched in memory
+    private void findMatches() {
+        searchMatches.clear();
+        if (filterQuery == null) return;
+        for (GroceryItem item : listener.findStoredItems(filterQuery, MAX_SEARCH_RESULTS)) {
+            if (item != null && item.getId() != null && !itemsById.containsKey(item.getId())) {
+                searchMatches.put(item.getId(), item);
+            }
+        }
+    }
+
+    private void attachFirstPage() {
+        hasMoreBefore = false;
+        Query ordered = ordered();
+        attach(new Page(sortMode.fromEnd
+                ? ordered.limitToLast(PAGE_SIZE)
+                : ordered.limitToFirst(PAGE_SIZE), false), false);
+    }
+
+    private Query ordered() {
+        return sortMode.orderBy == null ? ref.orderByKey() : ref.orderByChild(sortMode.orderBy);
+    }
+
+    // Firebase's order is by the orderBy value, then by key; bound is an item of the window
+    private Query startAfter(Query ordered, GroceryItem bound) {
+        if (sortMode.orderBy == null) return ordered.startAfter(bound.getId());
+        Object value = sortMode.orderValue(bound);
+        return value instanceof Number
+                ? ordered.startAfter(((Number) value).doubleValue(), bound.getId())
+                : ordered.startAfter((String) value, bound.getId());
+    }
+
+    private Query endBefore(Query ordered, GroceryItem bound) {
+        if (sortMode.orderBy == null) return ordered.endBefore(bound.getId());
+        Object value = sortMode.orderValue(bound);
+        return value instanceof Number
+                ? ordered.endBefore(((Number) value).doubleValue(), bound.getId())
+                : ordered.endBefore((String) value, bound.getId());
+    }
+
+    private void detachAll() {
+        for (Page page : pages) {
+            page.detach();
+        }
+        pages.clear();
+        pageRefCounts.clear();
+        loading = false;
+        ref = null;
+    }
+
+    private void attach(Page page, boolean atStart) {
+        loading = true;
+        pages.add(atStart ? 0 : pages.size(), page);
+        page.attach();
+    }
+
+    private void evict(Page page) {
+        page.detach();
+        for (String id : page.keys) {
+            release(id);
+        }
+        page.keys.clear();
+    }
+
+    // Coalesces every change queued before it into one published list
+    private void schedulePublish() {
+        if (publishPending) return;
+        publishPending = true;
+        GroceryPipeline.execute(() -> {
+            publishPending = false;
+            final List<GroceryItem> snapshot = Collections.unmodifiableList(
+                    filterQuery == null ? displayItems.toList() : filteredItems());
+            Map<String, GroceryItem> byId = new HashMap<>(itemsById);
+            if (filterQuery != null) {
+                // Search matches can come from outside the window; they must be looked up by id too
+                for (GroceryItem item : snapshot) {
+                    byId.put(item.getId(), item);
+                }
+            }
+            final Map<String, GroceryItem> snapshotById = Collections.unmodifiableMap(byId);
+            final int generation = publishGeneration.incrementAndGet();
+            GroceryPipeline.postToMain(() -> {
+                if (generation != publishGeneration.get()) return; // A newer list is on its way
+                listener.onItemsPublished(snapshot, snapshotById);
+            });
+        });
+    }
+
+    // Matches for the current filter, in the same order as the unfiltered list
+    private List<GroceryItem> filteredItems() {
+        Set<String> ids = nameIndex.search(filterQuery);
+        List<GroceryItem> matches = new ArrayList<>(ids.size() + searchMatches.size());
+        for (String id : ids) {
+            matches.add(itemsById.get(id));
+        }
+        matches.addAll(searchMatches.values());
+        Collections.sort(matches, sortMode.comparator);
+        return matches;
+    }
+
+    private void onPageLoaded(Page page) {
+        loading = false;
+        // The first page from the server, not the seeded items published before it
+        StartupTrace.end(StartupTrace.FIRST_SNAPSHOT);
+        if (page.before) {
+            // Fewer than a full page means we're back at the first item
+            hasMoreBefore = page.keys.size() == PAGE_SIZE;
+        }
+        if (seeded) {
+            seeded = false;
+            // Everything up to the page's last item should be in it; a full page ends there
+            boolean full = page.keys.size() >= PAGE_SIZE;
+            GroceryItem end = full ? page.bound(false) : null;
+            for (int position = items.size() - 1; position >= 0; position--) {
+                GroceryItem item = items.get(position);
+                if (pageRefCounts.containsKey(item.getId())) continue;
+                removeAt(position);
+                // Keys never change, but a cached item's name or quantity may be out of date (and
+                // the cache doesn't know which children its node has), so by value only an
+                // unfilled page proves anything missing from it is gone
+                boolean gone = !full || (sortMode.orderBy == null && end != null
+                        && sortMode.comparator.compare(item, end) < 0);
+                if (gone) {
+                    // Within the page's range but not in it, so the server no longer has it
+                    searchMatches.remove(item.getId());
+                    listener.onStaleItemDropped(item);
+                } else {
+                    keepIfMatching(item);
+                }
+            }
+        }
+    }
+
+    private void upsert(GroceryItem item) {
+        int position = indexOf(item.getId());
+        if (position < 0) {
+            items.add(insertionPoint(item.getId()), item);
+            displayItems.add(item);
+        } else if (item.equals(items.get(position)) && item.sameStoredFields(items.get(position))) {
+            return; // e.g. a cached item confirmed unchanged by the server
+        } else {
+            displayItems.replace(items.set(position, item), item);
+        }
+        itemsById.put(item.getId(), item);
+        nameIndex.put(item);
+        searchMatches.remove(item.getId()); // The window's copy is the live one now
+        listener.onItemStored(item);
+        schedulePublish();
+    }
+
+    private void retain(String id) {
+        Integer count = pageRefCounts.get(id);
+        pageRefCounts.put(id, count == null ? 1 : count + 1);
+    }
+
+    private void release(String id) {
+        Integer count = pageRefCounts.get(id);
+        if (count == null) return;
+        if (count > 1) {
+            pageRefCounts.put(id, count - 1);
+            return;
+        }
+        pageRefCounts.remove(id);
+        int position = indexOf(id);
+        if (position < 0) return;
+        GroceryItem item = items.get(position);
+        removeAt(position);
+        keepIfMatching(item);
+    }
+
+    // For an item leaving the window that's still in the store, so a search showing it goes on showing it
+    private void keepIfMatching(GroceryItem item) {
+        if (filterQuery != null && searchMatches.size() < MAX_SEARCH_RESULTS
+                && GroceryNameIndex.matches(filterQuery, item.getItem())) {
+            searchMatches.put(item.getId(), item);
+        }
+    }
+
+    // The two look alike from a limited query, so the server is asked whether it still has the item
+    private void dropIfDeleted(GroceryItem item) {
+        final DatabaseReference current = ref;
+        final String id = item.getId();
+        current.child(id).get().addOnCompleteListener(GroceryPipeline::execute, read -> {
+            if (!read.isSuccessful()) {
+                Log.w(TAG, "Couldn't check whether " + id + " was deleted", read.getException());
+                return;
+            }
+            // Left alone if it has come back since, or the list has been switched
+            if (read.getResult().exists() || current != ref || itemsById.containsKey(id)) return;
+            if (searchMatches.remove(id) != null) {
+                schedulePublish();
+            }
+            listener.onStaleItemDropped(item);
+        });
+    }
+
+    private void removeAt(int position) {
+        GroceryItem removed = items.remove(position);
+        itemsById.remove(removed.getId());
+        nameIndex.remove(removed.getId());
+        displayItems.remove(removed);
+        schedulePublish();
+    }
+
+    @Nullable
+    private GroceryItem parse(DataSnapshot snapshot) {
+        GroceryItem item = GroceryItemCodec.decode(snapshot.getKey(), snapshot.getValue());
+        if (item == null) {
+            Log.w(TAG, "Skipping non-item child: " + snapshot.getKey());
+        }
+        return item;
+    }
+
+    private int indexOf(String id) {
+        if (id == null || !itemsById.containsKey(id)) return -1;
+        int position = insertionPoint(id);
+        return position < items.size() && id.equals(items.get(position).getId()) ? position : -1;
+    }
+
+    // Binary search for the first position whose key is >= id
+    private int insertionPoint(String id) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getId().compareTo(id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * One page of the node in the current order. The single value listener on the same query only
+     * signals that the initial children have arrived; it shares the child listener's data.
+     * Callbacks arrive on the main thread and are forwarded to the pipeline as-is.
+     */
+    private class Page implements ChildEventListener, ValueEventListener {
+        final Query query;
+        final boolean before;
+        // Pipeline thread only
+        final Set<String> keys = new HashSet<>();
+        boolean loaded;
+        volatile boolean attached;
+
+        Page(Query query, boolean before) {
+            this.query = query;
+            this.before = before;
+        }
+
+        void attach() {
+            attached = true;
+            query.addChildEventListener(this);
+            query.addListenerForSingleValueEvent(this);
+        }
+
+        void detach() {
+            attached = false;
+            query.removeEventListener((ChildEventListener) this);
+            query.removeEventListener((ValueEventListener) this);
+        }
+
+        /** The page's first item in display order, or its last; null while it holds none. */
+        @Nullable
+        GroceryItem bound(boolean first) {
+            GroceryItem bound = null;
+            for (String key : keys) {
+                GroceryItem item = itemsById.get(key);
+                if (item == null) continue;
+                if (bound == null || (sortMode.comparator.compare(item, bound) < 0) == first) {
+                    bound = item;
+                }
+            }
+            return bound;
+        }
+
+        // Events can still be queued behind a detach; those are ignored
+        private void onPipeline(Runnable task) {
+            GroceryPipeline.execute(() -> {
+                if (attached) task.run();
+            });
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            onPipeline(() -> {
+                GroceryItem item = parse(snapshot);
+                if (item == null) return;
+                if (keys.add(item.getId())) {
+                    retain(item.getId());
+                }
+                upsert(item);
+            });
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            onPipeline(() -> {
+                GroceryItem item = parse(snapshot);
+                if (item != null) {
+                    upsert(item);
+                }
+            });
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            // Either deleted, or pushed out of this page's limit by an insert or a move before it
+            final String id = snapshot.getKey();
+            onPipeline(() -> {
+                if (!keys.remove(id)) return;
+                release(id);
+                // Still held by an overlapping page means it only moved
+                if (pageRefCounts.containsKey(id)) return;
+                GroceryItem removed = parse(snapshot);
+                if (removed != null) {
+                    dropIfDeleted(removed);
+                }
+            });
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            // The comparator places it; the change that moved it arrives through onChildChanged
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            onPipeline(() -> {
+                loaded = true;
+                onPageLoaded(this);
+            });
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "Child sync cancelled", error.toException());
+            onPipeline(() -> loading = false);
+            listener.onSyncError(error);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.grocerylistapp;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Copies a user's items from every legacy layout in {@link GroceryPaths} into the canonical
+ * path. Each legacy node is read in key-ordered chunks of {@link #CHUNK_SIZE}, so only one
+ * chunk is in memory at a time however large the tree is.
+ *
+ * Every chunk is written in a single multi-path update together with its checkpoint (the
+ * last key copied), so the copy and the record of it can't get out of step. An interrupted
+ * run resumes after the last committed chunk. Items that already exist at the canonical
+ * path are never overwritten, which keeps re-runs harmless. Legacy nodes are left in place.
+ *
+ * Then the canonical path itself is walked the same way, and every node still in an older
+ * layout (see {@link GroceryItemCodec#isOutdated}) is rewritten in the compact one, so all
+ * of them have the "n" and "q" children the server sorts by. It has its own checkpoint.
+ *
+ * Runs against whatever database it's given, so it can be pointed at the local emulator.
+ * Continuations run on the {@link GroceryPipeline} thread.
+ */
+public class GroceryMigration {
+
+    private static final String TAG = "GroceryMigration";
+
+    static final int CHUNK_SIZE = 100;
+    static final String KEY_LAST_KEY = "lastKey";
+    static final String KEY_DONE = "done";
+
+    private final DatabaseReference root;
+    private final GroceryPaths paths;
+    private final Executor executor = GroceryPipeline::execute;
+
+    public GroceryMigration(FirebaseDatabase database, GroceryPaths paths) {
+        this.root = database.getReference();
+        this.paths = paths;
+    }
+
+    /**
+     * Migrates every legacy layout for uid in turn, then upgrades the canonical items; the
+     * result is how many items were copied.
+     */
+    public Task<Integer> migrate(String uid) {
+        Task<Integer> chain = Tasks.forResult(0);
+        for (String template : paths.legacyTemplates()) {
+            chain = chain.continueWithTask(executor, previous -> {
+                int copiedBefore = previous.getResult();
+                return migrateLayout(uid, template)
+                        .continueWith(executor, copied -> copiedBefore + copied.getResult());
+            });
+        }
+        return chain.continueWithTask(executor, previous -> {
+            int copied = previous.getResult();
+            return upgradeCanonical(uid).continueWith(executor, upgraded -> {
+                upgraded.getResult(); // Rethrows, so a failed upgrade fails the run
+                return copied;
+            });
+        });
+    }
+
+    private Task<Integer> upgradeCanonical(String uid) {
+        DatabaseReference checkpoint = root.child(paths.upgradeCheckpoint(uid));
+        return checkpoint.get().continueWithTask(executor, read -> {
+            DataSnapshot state = read.getResult();
+            if (Boolean.TRUE.equals(state.child(KEY_DONE).getValue(Boolean.class))) {
+                return Tasks.forResult(0);
+            }
+            String lastKey = state.child(KEY_LAST_KEY).getValue(String.class);
+            Log.d(TAG, "Upgrading canonical items" + (lastKey != null ? " after " + lastKey : ""));
+            return upgradeChunks(uid, lastKey, 0);
+        });
+    }
+
+    // Rewrites each outdated node whole, dropping its old fields, in the same update as the checkpoint
+    private Task<Integer> upgradeChunks(String uid, String afterKey, int upgradedSoFar) {
+        String canonical = paths.canonical(uid);
+        Query chunkQuery = root.child(canonical).orderByKey();
+        if (afterKey != null) {
+            chunkQuery = chunkQuery.startAfter(afterKey);
+        }
+        return chunkQuery.limitToFirst(CHUNK_SIZE).get().continueWithTask(executor, read -> {
+            DataSnapshot chunk = read.getResult();
+            String checkpoint = paths.upgradeCheckpoint(uid);
+            Map<String, Object> updates = new HashMap<>();
+            String lastKey = afterKey;
+            int upgraded = 0;
+            for (DataSnapshot child : chunk.getChildren()) {
+                lastKey = child.getKey();
+                Object raw = child.getValue();
+                if (!GroceryItemCodec.isOutdated(raw)) continue;
+                updates.put(canonical + "/" + child.getKey(),
+                        GroceryItemCodec.encode(GroceryItemCodec.decode(child.getKey(), raw)));
+                upgraded++;
+            }
+            final String chunkLastKey = lastKey;
+            final boolean done = chunk.getChildrenCount() < CHUNK_SIZE;
+            if (chunkLastKey != null) {
+                updates.put(checkpoint + "/" + KEY_LAST_KEY, chunkLastKey);
+            }
+            updates.put(checkpoint + "/" + KEY_DONE, done);
+            final int total = upgradedSoFar + upgraded;
+            return root.updateChildren(updates).continueWithTask(executor, written -> {
+                written.getResult(); // Rethrows a failed write so the run stops here
+                if (done) {
+                    Log.d(TAG, "Finished upgrading canonical items: " + total + " rewritten");
+                    return Tasks.forResult(total);
+                }
+                return upgradeChunks(uid, chunkLastKey, total);
+            });
+        });
+    }
+
+    private Task<Integer> migrateLayout(String uid, String template) {
+        DatabaseReference checkpoint = root.child(paths.checkpoint(uid, template));
+        return checkpoint.get().continueWithTask(executor, read -> {
+            DataSnapshot state = read.getResult();
+            if (Boolean.TRUE.equals(state.child(KEY_DONE).getValue(Boolean.class))) {
+                return Tasks.forResult(0);
+            }
+            String lastKey = state.child(KEY_LAST_KEY).getValue(String.class);
+            Log.d(TAG, "Migrating " + template + (lastKey != null ? " after " + lastKey : ""));
+            return copyChunks(uid, template, lastKey, 0);
+        });
+    }
+
+    private Task<Integer> copyChunks(String uid, String template, String afterKey, int copiedSoFar) {
+        Query chunkQuery = root.child(GroceryPaths.resolve(template, uid)).orderByKey();
+        if (afterKey != null) {
+            chunkQuery = chunkQuery.startAfter(afterKey);
+        }
+        return chunkQuery.limitToFirst(CHUNK_SIZE).get().continueWithTask(executor, read -> {
+            DataSnapshot chunk = read.getResult();
+            List<GroceryItem> items = new ArrayList<>();
+            String lastKey = afterKey;
+            for (DataSnapshot child : chunk.getChildren()) {
+                lastKey = child.getKey();
+                GroceryItem item = GroceryItemCodec.decode(child.getKey(), child.getValue());
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            final String chunkLastKey = lastKey;
+            final boolean done = chunk.getChildrenCount() < CHUNK_SIZE;
+
+            return existingIds(uid, items).continueWithTask(executor, existing -> {
+                Set<String> present = existing.getResult();
+                String canonical = paths.canonical(uid);
+                String checkpoint = paths.checkpoint(uid, template);
+                Map<String, Object> updates = new HashMap<>();
+                int copied = 0;
+                for (GroceryItem item : items) {
+                    if (present.contains(item.getId())) continue; // Canonical data wins
+                    updates.put(canonical + "/" + item.getId(), GroceryItemCodec.encode(item));
+                    copied++;
+                }
+                if (chunkLastKey != null) {
+                    updates.put(checkpoint + "/" + KEY_LAST_KEY, chunkLastKey);
+                }
+                updates.put(checkpoint + "/" + KEY_DONE, done);
+                final int total = copiedSoFar + copied;
+                return root.updateChildren(updates).continueWithTask(executor, written -> {
+                    written.getResult(); // Rethrows a failed write so the run stops here
+                    if (done) {
+                        Log.d(TAG, "Finished " + template + ": " + total + " items copied");
+                        return Tasks.forResult(total);
+                    }
+                    return copyChunks(uid, template, chunkLastKey, total);
+                });
+            });
+        });
+    }
+
+    // Which of items already have a node at the canonical path, read one child each
+    private Task<Set<String>> existingIds(String uid, List<GroceryItem> items) {
+        if (items.isEmpty()) return Tasks.forResult(new HashSet<>());
+        DatabaseReference canonical = root.child(paths.canonical(uid));
+        List<Task<DataSnapshot>> reads = new ArrayList<>(items.size());
+        for (GroceryItem item : items) {
+            reads.add(canonical.child(item.getId()).get());
+        }
+        return Tasks.whenAllSuccess(reads).continueWith(executor, done -> {
+            Set<String> present = new HashSet<>();
+            for (Object result : done.getResult()) {
+                DataSnapshot snapshot = (DataSnapshot) result;
+                if (snapshot.exists()) {
+                    present.add(snapshot.getKey());
+                }
+            }
+            return present;
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.grocerylistapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Word-prefix index over item names, kept up to date one item at a time as items are added,
+ * changed and removed. A query matches an item when every word of the query is the start of
+ * some word of its name, case-insensitively: "mil" and "whole m" both find "Whole Milk".
+ * GroceryDbHelper tokenizes names with {@link #words} too, so both agree on what matches.
+ *
+ * Words are kept in a sorted map, so a prefix is a range lookup rather than a scan over
+ * every name, and the cost of a search depends on how many items match, not on list size.
+ *
+ * Not thread-safe; GroceryListSync only touches it on the pipeline thread.
+ */
+final class GroceryNameIndex {
+
+    private final TreeMap<String, Set<String>> idsByWord = new TreeMap<>();
+    private final Map<String, String[]> wordsById = new HashMap<>();
+
+    /** Indexes item, replacing whatever name was indexed for its id before. */
+    void put(GroceryItem item) {
+        String id = item.getId();
+        if (id == null) return;
+        String[] words = words(item.getItem());
+        String[] previous = wordsById.put(id, words);
+        if (previous != null) {
+            if (Arrays.equals(previous, words)) return; // e.g. only the quantity changed
+            unindex(id, previous);
+        }
+        for (String word : words) {
+            Set<String> ids = idsByWord.get(word);
+            if (ids == null) {
+                ids = new HashSet<>();
+                idsByWord.put(word, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    void remove(String id) {
+        String[] words = wordsById.remove(id);
+        if (words != null) {
+            unindex(id, words);
+        }
+    }
+
+    void clear() {
+        idsByWord.clear();
+        wordsById.clear();
+    }
+
+    /** Ids of items whose name matches query, in no particular order. Empty for a blank query. */
+    Set<String> search(String query) {
+        String[] queryWords = words(query);
+        if (queryWords.length == 0) return Collections.emptySet();
+        // Longer words usually match fewer items, so they narrow the result fastest
+        Arrays.sort(queryWords, (a, b) -> b.length() - a.length());
+
+        Set<String> result = null;
+        for (String prefix : queryWords) {
+            Set<String> matches = matchingPrefix(prefix, result);
+            if (matches.isEmpty()) return Collections.emptySet();
+            result = matches;
+        }
+        return result;
+    }
+
+    /** Whether name matches query by the same rule as {@link #search}, without indexing it. */
+    static boolean matches(String query, String name) {
+        String[] queryWords = words(query);
+        if (queryWords.length == 0) return false;
+        String[] nameWords = words(name);
+        for (String prefix : queryWords) {
+            boolean found = false;
+            for (String word : nameWords) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    // Ids with a word starting with prefix, limited to those in within when it's not null
+    private Set<String> matchingPrefix(String prefix, Set<String> within) {
+        Set<String> matches = new HashSet<>();
+        // Every word starting with prefix sorts between prefix and prefix + the largest char
+        SortedMap<String, Set<String>> range = idsByWord.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<String> ids : range.values()) {
+            if (within == null) {
+                matches.addAll(ids);
+                continue;
+            }
+            for (String id : ids) {
+                if (within.contains(id)) matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    private void unindex(String id, String[] words) {
+        for (String word : words) {
+            Set<String> ids = idsByWord.get(word);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                idsByWord.remove(word);
+            }
+        }
+    }
+
+    // Lower-cased runs of letters and digits; anything else separates words
+    static String[] words(String text) {
+        if (text == null) return new String[0];
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) words.add(word);
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+}
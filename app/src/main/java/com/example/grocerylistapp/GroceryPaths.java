@@ -0,0 +1,70 @@
+package com.example.grocerylistapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Where a user's grocery items live in the database. Paths are templates with a "{uid}"
+ * placeholder. The canonical one comes from the build (BuildConfig.GROCERIES_PATH); the
+ * other layouts earlier versions of the app wrote to are kept so their data can be migrated
+ * (see {@link GroceryMigration}).
+ */
+public final class GroceryPaths {
+
+    static final String UID = "{uid}";
+
+    /** Every layout the app has written items to, canonical or not. */
+    static final List<String> KNOWN_LAYOUTS = Collections.unmodifiableList(Arrays.asList(
+            "Users/{uid}",
+            "groceries/{uid}",
+            "users/{uid}/Users",
+            "users/{uid}/groceries"));
+
+    static final String MIGRATIONS_ROOT = "migrations";
+
+    private final String canonical;
+
+    public GroceryPaths(String canonicalTemplate) {
+        if (canonicalTemplate == null || !canonicalTemplate.contains(UID)) {
+            throw new IllegalArgumentException("Grocery path must contain " + UID + ": " + canonicalTemplate);
+        }
+        this.canonical = canonicalTemplate;
+    }
+
+    public String canonical(String uid) {
+        return resolve(canonical, uid);
+    }
+
+    /** Templates of the known layouts other than the canonical one, oldest first. */
+    public List<String> legacyTemplates() {
+        List<String> legacy = new ArrayList<>(KNOWN_LAYOUTS);
+        legacy.remove(canonical);
+        return legacy;
+    }
+
+    /** Where progress copying template's data into the canonical path is recorded for uid. */
+    public String checkpoint(String uid, String template) {
+        return MIGRATIONS_ROOT + "/" + requireUid(uid) + "/"
+                + template.replace(UID, "uid").replace('/', '_') + "_to_" + canonical.replace(UID, "uid").replace('/', '_');
+    }
+
+    /** Where progress rewriting uid's canonical items into the current layout is recorded. */
+    public String upgradeCheckpoint(String uid) {
+        return MIGRATIONS_ROOT + "/" + requireUid(uid) + "/"
+                + canonical.replace(UID, "uid").replace('/', '_') + "_to_v" + GroceryItemCodec.SCHEMA_VERSION;
+    }
+
+    static String resolve(String template, String uid) {
+        return template.replace(UID, requireUid(uid));
+    }
+
+    // A uid containing a path separator would escape the user's own node
+    private static String requireUid(String uid) {
+        if (uid == null || uid.isEmpty() || uid.contains("/")) {
+            throw new IllegalArgumentException("Invalid uid: " + uid);
+        }
+        return uid;
+    }
+}
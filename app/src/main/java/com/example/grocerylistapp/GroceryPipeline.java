@@ -0,0 +1,37 @@
+package com.example.grocerylistapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The one background thread grocery list work runs on: parsing child snapshots, keeping the
+ * key-ordered store, and diffing lists for GroceryAdapter. Running it all on a single thread
+ * keeps that work ordered and lock-free; only finished results are posted to the main thread.
+ */
+final class GroceryPipeline {
+
+    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, "grocery-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private GroceryPipeline() { }
+
+    static void execute(Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    static void postToMain(Runnable task) {
+        MAIN_HANDLER.post(task);
+    }
+}
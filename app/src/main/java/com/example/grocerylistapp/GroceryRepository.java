@@ -0,0 +1,557 @@
+package com.example.grocerylistapp;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Single source of grocery items for the UI. On start it shows the last-known list from the
+ * on-device cache, then attaches to Firebase page by page and reconciles in the background,
+ * writing every change through to the cache. Activities read and write items through here rather than
+ * holding their own DatabaseReference.
+ *
+ * Writes are optimistic: saves, deletes and quantity steps show up in the list straight away
+ * and are tracked in {@link PendingMutations} until Firebase answers. A rejected write is
+ * undone on screen and observers are told, so callers don't have to wait on the Task.
+ *
+ * The open list is the user's own by default, or a household list from {@link SharedLists}
+ * after {@link #openList}. Only the open list is subscribed to; writes to a shared list wait
+ * for its members to load, and also stamp the list's last-change time in the same update.
+ *
+ * All public methods must be called on the main thread.
+ */
+public class GroceryRepository implements GroceryListSync.Listener {
+
+    private static final String TAG = "GroceryRepository";
+
+    // Quantity taps are written once no item has been stepped for this long
+    static final long QUANTITY_WRITE_DELAY_MS = 800;
+
+    /** Called on the main thread with the full list each time it changes. */
+    public interface Observer {
+        void onItemsChanged(List<GroceryItem> items);
+        void onSyncError(DatabaseError error);
+        /** A write of item was rejected and has been undone locally. */
+        void onWriteRolledBack(GroceryItem item, Exception error);
+    }
+
+    private static GroceryRepository instance;
+
+    public static synchronized GroceryRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new GroceryRepository(new GroceryDbHelper(context));
+        }
+        return instance;
+    }
+
+    private final GroceryDbHelper dbHelper;
+    private final Executor diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final GroceryListSync sync = new GroceryListSync(this);
+    private final List<Observer> observers = new ArrayList<>();
+
+    private String uid; // The signed-in user
+    @Nullable
+    private String openListId; // Null for the user's own list
+    private String openListName;
+    private volatile String cacheKey; // Cache rows of the open list; also read on the pipeline thread
+    private DatabaseReference groceriesRef;
+    // Members of the open shared list; only that list's members are listened to
+    private final Set<String> memberUids = new HashSet<>();
+    private TaskCompletionSource<Void> membersLoaded; // Set once memberUids first holds them
+    private DatabaseReference membersRef;
+    private ValueEventListener membersListener;
+    private int startGeneration; // Guards against a cache load finishing after stop()/restart
+    private GrocerySortMode sortMode = GrocerySortMode.ADDED;
+    // Latest list published by the sync; main thread only
+    private List<GroceryItem> items;
+    private Map<String, GroceryItem> itemsById = Collections.emptyMap();
+    // Stepped quantities not yet written, by item id; main thread only
+    private final Map<String, Integer> pendingQuantities = new HashMap<>();
+    private final Map<String, GroceryItem> stepOrigins = new HashMap<>(); // As shown before the first step
+    private final Runnable flushQuantities = this::flushQuantities;
+    private final PendingMutations mutations = new PendingMutations(); // Main thread only
+
+    private GroceryRepository(GroceryDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /** Starts serving uid's own list. Calling it again for the same user is a no-op. */
+    public void start(String uid) {
+        if (uid.equals(this.uid)) return;
+        stop();
+        this.uid = uid;
+        open(uid, FirebaseUtils.groceriesRef(uid));
+
+        // Items still under an older layout arrive through the sync as they're copied over
+        new GroceryMigration(FirebaseUtils.getDatabase(), FirebaseUtils.getPaths()).migrate(uid)
+                .addOnFailureListener(e -> Log.e(TAG, "Migration to the canonical path failed; retried on next start", e));
+    }
+
+    /**
+     * Switches to the shared list listId, or back to the user's own list when it's null.
+     * The previous list's listeners are detached, so only one list is ever subscribed to.
+     */
+    public void openList(@Nullable String listId, @Nullable String name) {
+        if (uid == null || Objects.equals(listId, openListId)) return;
+        closeList();
+        openListId = listId;
+        openListName = name;
+        if (listId == null) {
+            open(uid, FirebaseUtils.groceriesRef(uid));
+            return;
+        }
+        open("list:" + listId, FirebaseUtils.getDatabase().getReference(SharedLists.itemsPath(listId)));
+        attachMembers(listId);
+    }
+
+    @Nullable
+    public String getOpenListId() {
+        return openListId;
+    }
+
+    /** Name of the open shared list, or null for the user's own list. */
+    @Nullable
+    public String getOpenListName() {
+        return openListId != null ? openListName : null;
+    }
+
+    /** The user's shared lists by id, with their names, read once from their index. */
+    public Task<Map<String, String>> loadSharedLists() {
+        return FirebaseUtils.getDatabase().getReference(SharedLists.userListsPath(requireUid())).get()
+                .continueWith(read -> {
+                    Map<String, String> lists = new LinkedHashMap<>();
+                    for (DataSnapshot entry : read.getResult().getChildren()) {
+                        String name = entry.child(SharedLists.KEY_NAME).getValue(String.class);
+                        lists.put(entry.getKey(), name != null ? name : entry.getKey());
+                    }
+                    return lists;
+                });
+    }
+
+    /** Creates a shared list with the user as its only member; the result is its id. */
+    public Task<String> createSharedList(String name) {
+        DatabaseReference root = FirebaseUtils.getDatabase().getReference();
+        String listId = root.child(SharedLists.LISTS).push().getKey();
+        return root.updateChildren(SharedLists.create(listId, requireUid(), name))
+                .continueWith(written -> {
+                    written.getResult();
+                    return listId;
+                });
+    }
+
+    /** Joins the list whose id was shared with the user; the result is its name. */
+    public Task<String> joinSharedList(String listId) {
+        DatabaseReference root = FirebaseUtils.getDatabase().getReference();
+        String user = requireUid();
+        try {
+            SharedLists.requireKey(listId); // Typed in by the user
+        } catch (IllegalArgumentException e) {
+            return Tasks.forException(e);
+        }
+        return root.child(SharedLists.metaPath(listId)).child(SharedLists.KEY_NAME).get()
+                .continueWithTask(read -> {
+                    String name = read.getResult().getValue(String.class);
+                    if (name == null) {
+                        throw new IllegalArgumentException("No shared list with code " + listId);
+                    }
+                    return root.updateChildren(SharedLists.join(listId, user, name))
+                            .continueWith(written -> {
+                                written.getResult();
+                                return name;
+                            });
+                });
+    }
+
+    /** Leaves the list, going back to the user's own list if it was open. */
+    public Task<Void> leaveSharedList(String listId) {
+        String user = requireUid();
+        if (listId.equals(openListId)) {
+            openList(null, null);
+        }
+        return FirebaseUtils.getDatabase().getReference().updateChildren(SharedLists.leave(listId, user));
+    }
+
+    // Shows the cache for key, then syncs ref
+    private void open(String key, DatabaseReference ref) {
+        cacheKey = key;
+        groceriesRef = ref;
+
+        StartupTrace.begin(StartupTrace.FIRST_SNAPSHOT);
+        StartupTrace.begin(StartupTrace.FIRST_CACHE_LOAD);
+        final int generation = ++startGeneration;
+        final GrocerySortMode mode = sortMode;
+        diskExecutor.execute(() -> {
+            // Only the first page is shown before Firebase answers, so only that much is read
+            List<GroceryItem> cached = dbHelper.loadItems(key, mode, GroceryListSync.PAGE_SIZE);
+            StartupTrace.end(StartupTrace.FIRST_CACHE_LOAD);
+            mainHandler.post(() -> {
+                if (generation != startGeneration) return;
+                Log.d(TAG, "Loaded " + cached.size() + " cached items");
+                sync.start(ref, cached);
+            });
+        });
+    }
+
+    private void attachMembers(String listId) {
+        final TaskCompletionSource<Void> loaded = new TaskCompletionSource<>();
+        membersLoaded = loaded;
+        membersRef = FirebaseUtils.getDatabase().getReference(SharedLists.membersPath(listId));
+        membersListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                memberUids.clear();
+                for (DataSnapshot member : snapshot.getChildren()) {
+                    memberUids.add(member.getKey());
+                }
+                loaded.trySetResult(null);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Members of " + listId + " unavailable", error.toException());
+                loaded.trySetException(error.toException());
+            }
+        };
+        membersRef.addValueEventListener(membersListener);
+    }
+
+    /** Stops serving the list and deletes the cache, so nothing of it outlives the session. */
+    public void signOut() {
+        stop();
+        // Queued behind any cache writes still pending, so none of them comes back afterwards
+        diskExecutor.execute(dbHelper::clear);
+    }
+
+    public void stop() {
+        closeList();
+        uid = null;
+        openListId = null;
+        openListName = null;
+    }
+
+    private void closeList() {
+        flushQuantities(); // Taps made just before leaving the list still count
+        mutations.clear(); // Nothing left on screen to roll back
+        startGeneration++;
+        sync.stop();
+        items = null;
+        itemsById = Collections.emptyMap();
+        cacheKey = null;
+        groceriesRef = null;
+        if (membersRef != null) {
+            membersRef.removeEventListener(membersListener);
+            membersRef = null;
+            membersListener = null;
+        }
+        if (membersLoaded != null) {
+            // Writes still waiting were for the list being left
+            membersLoaded.trySetException(new IllegalStateException("List closed"));
+            membersLoaded = null;
+        }
+        memberUids.clear();
+    }
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+        if (items != null) {
+            observer.onItemsChanged(items);
+        }
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Adds observer until owner is destroyed, so activities can read items from here instead
+     * of passing copies around in Intents. Does nothing if owner is already destroyed.
+     */
+    public void observe(LifecycleOwner owner, Observer observer) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) return;
+        lifecycle.addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                removeObserver(observer);
+            }
+        });
+        addObserver(observer);
+    }
+
+    /** Narrows the published list to items whose names match query; blank shows everything. */
+    public void setFilter(@Nullable String query) {
+        sync.setFilter(query);
+    }
+
+    /**
+     * Re-orders the published list. What's loaded is re-sorted at once, then the window is
+     * reloaded from the start of the new order, so paging carries on in that order.
+     */
+    public void setSortMode(GrocerySortMode mode) {
+        sortMode = mode;
+        sync.setSortMode(mode);
+    }
+
+    public GrocerySortMode getSortMode() {
+        return sortMode;
+    }
+
+    /** Call as the list nears its end; loads the next page in the current sort order. */
+    public void loadMore() {
+        sync.loadNextPage();
+    }
+
+    /** Call as the list nears its start; reloads a page evicted earlier. */
+    public void loadPrevious() {
+        sync.loadPreviousPage();
+    }
+
+    /** The latest published list, read-only. Empty until the first one arrives. */
+    public List<GroceryItem> getItems() {
+        return items != null ? items : Collections.emptyList();
+    }
+
+    /** The live copy of an item in the latest published list or the loaded window, if any. */
+    @Nullable
+    public GroceryItem getItem(String id) {
+        return itemsById.get(id);
+    }
+
+    /** Generates a push key locally, without a round trip. Null if not started. */
+    @Nullable
+    public String newItemId() {
+        return groceriesRef != null ? groceriesRef.push().getKey() : null;
+    }
+
+    /** Creates or overwrites the item under its id, showing it before Firebase confirms. */
+    public Task<Void> save(GroceryItem item) {
+        requireRef();
+        long sequence = mutations.begin(item.getId(), getItem(item.getId()), item);
+        sync.applyLocal(item);
+        Task<Void> task = writeItems(Collections.singletonMap(item.getId(), GroceryItemCodec.encode(item)));
+        track(task, Collections.singletonList(sequence));
+        return task;
+    }
+
+    /**
+     * Saves several items in one atomic multi-path updateChildren call. Items without an id get
+     * a locally generated push key first, so there's a single round trip however many there are.
+     */
+    public Task<Void> saveAll(List<GroceryItem> items) {
+        DatabaseReference ref = requireRef();
+        Map<String, Object> updates = new HashMap<>();
+        List<Long> sequences = new ArrayList<>();
+        for (GroceryItem item : items) {
+            if (item.getId() == null) {
+                item.setId(ref.push().getKey());
+            }
+            updates.put(item.getId(), GroceryItemCodec.encode(item));
+            sequences.add(mutations.begin(item.getId(), getItem(item.getId()), item));
+            sync.applyLocal(item);
+        }
+        Task<Void> task = writeItems(updates);
+        track(task, sequences);
+        return task;
+    }
+
+    /**
+     * Changes item's quantity by delta (at least 1) and shows it right away. Steps are
+     * coalesced: the quantities of every stepped item are written in one update once the
+     * taps have been quiet for {@link #QUANTITY_WRITE_DELAY_MS}, so ten taps are one write.
+     */
+    public void stepQuantity(GroceryItem item, int delta) {
+        String id = item.getId();
+        Integer pending = pendingQuantities.get(id);
+        int current = pending != null ? pending : item.getQuantity();
+        int quantity = Math.max(1, Math.min(current + delta, BulkItemParser.MAX_QUANTITY));
+        if (quantity == current) return;
+
+        if (!stepOrigins.containsKey(id)) {
+            stepOrigins.put(id, item);
+        }
+        pendingQuantities.put(id, quantity);
+        GroceryItem stepped = new GroceryItem(id, item.getItem(), quantity);
+        // Only "q" is written, so the node keeps whatever name child it had
+        stepped.setStoredFields(item.storesName(), true);
+        sync.applyLocal(stepped);
+        mainHandler.removeCallbacks(flushQuantities);
+        mainHandler.postDelayed(flushQuantities, QUANTITY_WRITE_DELAY_MS);
+    }
+
+    // Only the quantity fields are sent, as one multi-path update
+    private void flushQuantities() {
+        mainHandler.removeCallbacks(flushQuantities);
+        if (pendingQuantities.isEmpty() || groceriesRef == null) {
+            pendingQuantities.clear();
+            stepOrigins.clear();
+            return;
+        }
+        Map<String, Object> updates = new HashMap<>();
+        List<Long> sequences = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : pendingQuantities.entrySet()) {
+            GroceryItem origin = stepOrigins.get(entry.getKey());
+            updates.put(entry.getKey() + "/" + GroceryItemCodec.KEY_QUANTITY, entry.getValue());
+            sequences.add(mutations.begin(entry.getKey(), origin,
+                    new GroceryItem(entry.getKey(), origin.getItem(), entry.getValue())));
+        }
+        pendingQuantities.clear();
+        stepOrigins.clear();
+        track(writeItems(updates), sequences);
+    }
+
+    /** Deletes the item, hiding it before Firebase confirms. */
+    public Task<Void> delete(GroceryItem item) {
+        requireRef();
+        GroceryItem before = getItem(item.getId());
+        long sequence = mutations.begin(item.getId(), before != null ? before : item, null);
+        sync.removeLocal(item.getId());
+        uncache(item);
+        Task<Void> task = writeItems(Collections.singletonMap(item.getId(), null));
+        track(task, Collections.singletonList(sequence));
+        return task;
+    }
+
+    // Confirms the writes when Firebase accepts them, or undoes them when it doesn't
+    private void track(Task<Void> task, List<Long> sequences) {
+        task.addOnCompleteListener(done -> {
+            for (long sequence : sequences) {
+                if (done.isSuccessful()) {
+                    mutations.confirm(sequence);
+                    continue;
+                }
+                PendingMutations.Mutation failed = mutations.fail(sequence);
+                if (failed != null) {
+                    rollBack(failed, done.getException());
+                }
+            }
+        });
+    }
+
+    private void rollBack(PendingMutations.Mutation failed, Exception error) {
+        Log.w(TAG, "Write to " + failed.id + " rejected, undoing it", error);
+        if (failed.before != null) {
+            sync.applyLocal(failed.before); // Re-cached when the sync stores it
+        } else {
+            sync.removeLocal(failed.id);
+            uncache(failed.after);
+        }
+        GroceryItem item = failed.after != null ? failed.after : failed.before;
+        for (Observer observer : new ArrayList<>(observers)) {
+            observer.onWriteRolledBack(item, error);
+        }
+    }
+
+    /**
+     * One multi-path update of the open list; paths are relative to its items node and a null
+     * value deletes. For a shared list the list's meta is stamped in the same update, which is
+     * sent once its members have loaded and only if the user is still one of them.
+     */
+    private Task<Void> writeItems(Map<String, Object> itemUpdates) {
+        DatabaseReference ref = requireRef();
+        if (openListId == null) {
+            return ref.updateChildren(itemUpdates);
+        }
+        final String listId = openListId;
+        final String user = requireUid();
+        return membersLoaded.getTask().onSuccessTask(loaded -> {
+            if (!listId.equals(openListId) || !memberUids.contains(user)) {
+                return Tasks.forException(new IllegalStateException("Not a member of " + listId));
+            }
+            return FirebaseUtils.getDatabase().getReference().updateChildren(
+                    SharedLists.itemWrite(listId, itemUpdates, ServerValue.TIMESTAMP));
+        });
+    }
+
+    private String requireUid() {
+        if (uid == null) {
+            throw new IllegalStateException("GroceryRepository not started");
+        }
+        return uid;
+    }
+
+    private DatabaseReference requireRef() {
+        if (groceriesRef == null) {
+            throw new IllegalStateException("GroceryRepository not started");
+        }
+        return groceriesRef;
+    }
+
+    // --- GroceryListSync.Listener: write through to the cache, then fan out ---
+    // onItemStored/onStaleItemDropped/findStoredItems arrive on the pipeline thread
+
+    @Override
+    public void onItemStored(GroceryItem item) {
+        persist(item);
+    }
+
+    @Override
+    public void onStaleItemDropped(GroceryItem item) {
+        uncache(item);
+    }
+
+    // A short indexed read, so it's done on the pipeline rather than queued behind cache writes
+    @Override
+    public List<GroceryItem> findStoredItems(String query, int limit) {
+        final String cacheUid = cacheKey;
+        if (cacheUid == null) return Collections.emptyList();
+        return dbHelper.searchItems(cacheUid, query, limit);
+    }
+
+    @Override
+    public void onItemsPublished(List<GroceryItem> items, Map<String, GroceryItem> itemsById) {
+        this.items = items;
+        this.itemsById = itemsById;
+        for (Observer observer : new ArrayList<>(observers)) {
+            observer.onItemsChanged(items);
+        }
+    }
+
+    @Override
+    public void onSyncError(DatabaseError error) {
+        for (Observer observer : new ArrayList<>(observers)) {
+            observer.onSyncError(error);
+        }
+    }
+
+    private void persist(GroceryItem item) {
+        final String cacheUid = cacheKey;
+        if (cacheUid == null) return;
+        diskExecutor.execute(() -> dbHelper.upsertItem(cacheUid, item));
+    }
+
+    private void uncache(GroceryItem item) {
+        final String cacheUid = cacheKey;
+        if (cacheUid == null) return;
+        final String id = item.getId();
+        diskExecutor.execute(() -> dbHelper.deleteItems(cacheUid, Collections.singletonList(id)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.grocerylistapp;
+
+import android.util.DisplayMetrics;
+
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Recycled-view pool for rvGroceries that is filled before the list needs it. Rows are
+ * inflated off the main thread by AsyncLayoutInflater, one after another, and only wrapped
+ * in a holder on the main thread, so neither the first screen of rows nor a fast scroll
+ * has to wait on inflation. AsyncLayoutInflater has none of AppCompat's view factory, so
+ * item_grocery names the Material widgets it would have substituted, and a prewarmed row is
+ * the same as one RecyclerView inflates itself.
+ *
+ * The pool holds a screenful of rows plus a few spare for RecyclerView's scroll prefetch.
+ * It's tied to one activity's views; call {@link #release} when that activity goes away.
+ */
+final class GroceryRowPool extends RecyclerView.RecycledViewPool {
+
+    // item_grocery: 16dp padding above and below a 48dp row of buttons
+    private static final int ROW_HEIGHT_DP = 80;
+    private static final int SPARE_ROWS = 4;
+
+    private final int capacity;
+    private AsyncLayoutInflater inflater;
+    private int inflated;
+    private boolean released;
+
+    GroceryRowPool(DisplayMetrics metrics) {
+        capacity = rowsToFill(metrics.heightPixels, metrics.density);
+        setMaxRecycledViews(GroceryAdapter.VIEW_TYPE_ITEM, capacity);
+    }
+
+    static int rowsToFill(int screenHeightPx, float density) {
+        int rowHeightPx = Math.max(1, Math.round(ROW_HEIGHT_DP * density));
+        return (screenHeightPx + rowHeightPx - 1) / rowHeightPx + SPARE_ROWS;
+    }
+
+    /** Starts filling the pool with rows for adapter; list must already use this pool. */
+    void prewarm(RecyclerView list, GroceryAdapter adapter) {
+        if (inflater != null) return;
+        inflater = new AsyncLayoutInflater(list.getContext());
+        inflateNext(list, adapter);
+    }
+
+    void release() {
+        released = true;
+    }
+
+    // Queued one at a time: AsyncLayoutInflater blocks the caller once its queue is full
+    private void inflateNext(RecyclerView list, GroceryAdapter adapter) {
+        if (released || inflated >= capacity) return;
+        inflater.inflate(R.layout.item_grocery, list, (view, resid, parent) -> {
+            if (released) return;
+            inflated++;
+            // Rows RecyclerView created itself while this one was inflating may have filled the pool
+            if (getRecycledViewCount(GroceryAdapter.VIEW_TYPE_ITEM) < capacity) {
+                adapter.offerInflatedRow(view);
+                putRecycledView(adapter.createViewHolder(list, GroceryAdapter.VIEW_TYPE_ITEM));
+            }
+            inflateNext(list, adapter);
+        });
+    }
+}
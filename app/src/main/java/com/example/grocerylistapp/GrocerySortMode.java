@@ -0,0 +1,68 @@
+package com.example.grocerylistapp;
+
+import java.util.Comparator;
+
+/**
+ * Orders the grocery list can be shown in. Each one is an order Firebase can query in, read
+ * either from its start or from its end, so the window of pages GroceryListSync holds is
+ * always a contiguous run of the list as shown, wherever it has scrolled to.
+ *
+ * Every comparator falls back to the item id, as Firebase does, so no two distinct items
+ * compare equal and a binary search always finds the exact item.
+ */
+public enum GrocerySortMode {
+    /** Oldest first: the order of the Firebase push keys. */
+    ADDED("Oldest first", null, false),
+    /** Newest first: push keys read from the end. */
+    RECENT("Recently added", null, true),
+    /** By name as Firebase orders strings, so capitalised names come before lower-case ones. */
+    NAME("Name", GroceryItemCodec.KEY_NAME, false),
+    /** Largest quantity first. */
+    QUANTITY("Quantity", GroceryItemCodec.KEY_QUANTITY, true);
+
+    public final String label;
+    /**
+     * The child Firebase orders by (orderByChild), or null to order by key. The items node
+     * needs ".indexOn" for these in the database rules, or Firebase sorts on the client.
+     */
+    public final String orderBy;
+    /** Whether the list starts at the end of Firebase's order, so pages are read with limitToLast. */
+    public final boolean fromEnd;
+    /** Firebase's order for orderBy: by value, missing values first, then by key. */
+    public final Comparator<GroceryItem> serverOrder;
+    /** The order the list is shown in: serverOrder, reversed when reading from the end. */
+    public final Comparator<GroceryItem> comparator;
+
+    GrocerySortMode(String label, String orderBy, boolean fromEnd) {
+        this.label = label;
+        this.orderBy = orderBy;
+        this.fromEnd = fromEnd;
+        this.serverOrder = (a, b) -> {
+            int result = compareValues(orderValue(a), orderValue(b));
+            return result != 0 ? result : a.getId().compareTo(b.getId());
+        };
+        this.comparator = fromEnd ? serverOrder.reversed() : serverOrder;
+    }
+
+    /**
+     * The value of item's orderBy child as the server sees it, a String or Number; null when
+     * ordering by key or when the stored node doesn't have that child (an older layout not
+     * yet rewritten by GroceryMigration), which the server sorts first.
+     */
+    public Object orderValue(GroceryItem item) {
+        if (GroceryItemCodec.KEY_NAME.equals(orderBy)) return item.storesName() ? item.getItem() : null;
+        if (GroceryItemCodec.KEY_QUANTITY.equals(orderBy)) return item.storesQuantity() ? item.getQuantity() : null;
+        return null;
+    }
+
+    // A mode only ever orders by strings or only by numbers; missing values sort first
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        return ((String) a).compareTo((String) b);
+    }
+}
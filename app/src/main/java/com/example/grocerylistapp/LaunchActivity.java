@@ -0,0 +1,52 @@
+package com.example.grocerylistapp;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseUser;
+
+/**
+ * Launcher entry point. It has no layout and never draws: it reads the cached sign-in
+ * state and forwards straight to LoginActivity or MainActivity, so neither screen is
+ * inflated only to bounce to the other.
+ *
+ * For a signed-in user the repository is started here, before MainActivity exists, so the
+ * cached list is read from disk and the first page is requested while MainActivity inflates.
+ * MainActivity's own start() for the same user is then a no-op.
+ *
+ * This is the only exported activity, so launch-time options meant for MainActivity, such
+ * as {@link FrameMetricsRecorder#EXTRA_ENABLED}, are passed on to it from here.
+ */
+public class LaunchActivity extends Activity {
+
+    private static final String TAG = "LaunchActivity";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        StartupTrace.begin(StartupTrace.FIRST_AUTH_CHECK);
+        FirebaseUser currentUser = FirebaseUtils.getAuth().getCurrentUser();
+        StartupTrace.end(StartupTrace.FIRST_AUTH_CHECK);
+
+        Class<? extends Activity> target;
+        if (currentUser != null) {
+            Log.d(TAG, "Signed in, prefetching the list.");
+            GroceryRepository.getInstance(this).start(currentUser.getUid());
+            target = MainActivity.class;
+        } else {
+            target = LoginActivity.class;
+        }
+        Intent intent = new Intent(this, target);
+        if (target == MainActivity.class && getIntent().hasExtra(FrameMetricsRecorder.EXTRA_ENABLED)) {
+            intent.putExtra(FrameMetricsRecorder.EXTRA_ENABLED,
+                    getIntent().getBooleanExtra(FrameMetricsRecorder.EXTRA_ENABLED, false));
+        }
+        startActivity(intent);
+        // Nothing of this activity is ever shown, so there's nothing to animate away from
+        overrideActivityTransition(OVERRIDE_TRANSITION_OPEN, 0, 0);
+        finish();
+    }
+}
@@ -3,22 +3,17 @@ package com.example.grocerylistapp;
 import android.content.Intent;
 import android.os.Bundle;
 import android.text.TextUtils;
-<<<<<<< HEAD
 import android.util.Log;
 // NEW: Import View and MotionEvent for animations
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
-=======
-import android.util.Log; // Make sure Log is imported
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
-<<<<<<< HEAD
 import com.example.grocerylistapp.databinding.ActivityLoginBinding;
 // NEW: Import specific Firebase exceptions for better error handling
 import com.google.firebase.auth.FirebaseAuthInvalidCredentialsException;
@@ -34,42 +29,27 @@ public class LoginActivity extends AppCompatActivity {
 
     private ActivityLoginBinding binding;
     private FirebaseAuth auth;
-=======
-import com.example.grocerylistapp.databinding.ActivityLoginBinding; // For View Binding
-import com.google.android.gms.tasks.OnCompleteListener;
-import com.google.android.gms.tasks.Task;
-import com.google.firebase.auth.AuthResult;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser; // Import FirebaseUser
-
-public class LoginActivity extends AppCompatActivity {
-
-    private static final String TAG = "LoginActivity_DEBUG"; // Tag for logging
-
-    private ActivityLoginBinding binding; // View Binding variable
-    private FirebaseAuth auth;            // Firebase Auth variable
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         Log.d(TAG, "onCreate - START");
 
-<<<<<<< HEAD
-        binding = ActivityLoginBinding.inflate(getLayoutInflater());
-        setContentView(binding.getRoot());
-
-        auth = FirebaseAuth.getInstance();
+        auth = FirebaseUtils.getAuth();
 
-        // Check if user is already logged in (your code is good here)
+        // LaunchActivity only sends signed-out users here, but the task can be restored to this
+        // screen after signing in elsewhere; checked before inflating anything
         FirebaseUser currentUser = auth.getCurrentUser();
         if (currentUser != null) {
-            Log.d(TAG, "User already logged in: " + currentUser.getUid() + ". Redirecting to MainActivity.");
+            Log.d(TAG, "User already logged in. Redirecting to MainActivity.");
             startActivity(new Intent(LoginActivity.this, MainActivity.class));
             finish();
             return;
         }
 
+        binding = ActivityLoginBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
         // --- NEW: Add Button and Page Animations ---
         final Animation buttonPressAnim = AnimationUtils.loadAnimation(this, R.anim.button_press);
         final Animation buttonReleaseAnim = AnimationUtils.loadAnimation(this, R.anim.button_release);
@@ -97,98 +77,10 @@ public class LoginActivity extends AppCompatActivity {
             startActivity(intent);
             // Apply a fade transition when going to Register page
             overrideActivityTransition(OVERRIDE_TRANSITION_OPEN, R.anim.fade_in, R.anim.fade_out);
-=======
-        // Inflate the layout using View Binding
-        binding = ActivityLoginBinding.inflate(getLayoutInflater());
-        setContentView(binding.getRoot());
-
-        try {
-            // Initialize Firebase Auth
-            // You can use FirebaseUtils.getAuth() if you prefer,
-            // but direct getInstance() is also common.
-            auth = FirebaseAuth.getInstance();
-            Log.d(TAG, "FirebaseAuth.getInstance() SUCCEEDED");
-
-            // Check if user is already logged in
-            FirebaseUser currentUser = auth.getCurrentUser();
-            if (currentUser != null) {
-                Log.d(TAG, "User already logged in: " + currentUser.getUid() + ". Redirecting to MainActivity.");
-                startActivity(new Intent(LoginActivity.this, MainActivity.class));
-                finish(); // Finish LoginActivity so user can't navigate back to it
-                return;   // Important: return to prevent rest of onCreate if redirecting
-            } else {
-                Log.d(TAG, "No user currently logged in. Proceeding with login/register UI.");
-            }
-
-        } catch (Exception e) {
-            // Catch any unexpected errors during Firebase setup
-            Log.e(TAG, "Error during FirebaseAuth setup or current user check", e);
-            Toast.makeText(this, "Initialization error. Please try restarting the app.", Toast.LENGTH_LONG).show();
-            // Depending on the severity, you might want to finish() the activity here
-            // For now, we'll let it proceed to show the login form, but auth might be null.
-        }
-
-
-        // Set up Login Button click listener
-        binding.btnLogin.setOnClickListener(v -> {
-            Log.d(TAG, "Login button clicked.");
-            String email = binding.etEmail.getText().toString().trim();
-            String password = binding.etPassword.getText().toString().trim();
-
-            if (TextUtils.isEmpty(email)) {
-                binding.etEmail.setError("Email is required.");
-                Toast.makeText(LoginActivity.this, "Please enter your email.", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "Login attempt with empty email.");
-                return;
-            }
-
-            if (TextUtils.isEmpty(password)) {
-                binding.etPassword.setError("Password is required.");
-                Toast.makeText(LoginActivity.this, "Please enter your password.", Toast.LENGTH_SHORT).show();
-                Log.w(TAG, "Login attempt with empty password.");
-                return;
-            }
-
-            // Ensure auth object is not null before using it
-            if (auth == null) {
-                Toast.makeText(LoginActivity.this, "Authentication service not ready. Please restart.", Toast.LENGTH_SHORT).show();
-                Log.e(TAG, "auth is null in btnLogin.setOnClickListener. Firebase might not have initialized correctly.");
-                return;
-            }
-
-            Log.d(TAG, "Attempting signInWithEmailAndPassword for: " + email);
-            auth.signInWithEmailAndPassword(email, password)
-                    .addOnCompleteListener(this, new OnCompleteListener<AuthResult>() {
-                        // Added 'this' for clarity, ensures listener is removed if activity is destroyed.
-                        @Override
-                        public void onComplete(@NonNull Task<AuthResult> task) {
-                            if (task.isSuccessful()) {
-                                Log.d(TAG, "Login SUCCESSFUL for: " + email);
-                                Toast.makeText(LoginActivity.this, "Login Successful!", Toast.LENGTH_SHORT).show();
-                                startActivity(new Intent(LoginActivity.this, MainActivity.class));
-                                finish(); // Finish LoginActivity
-                            } else {
-                                Log.e(TAG, "Login FAILED for: " + email, task.getException());
-                                // Provide a more user-friendly error or specific ones based on task.getException()
-                                String errorMessage = task.getException() != null ? task.getException().getMessage() : "Unknown error";
-                                Toast.makeText(LoginActivity.this, "Login failed: " + errorMessage, Toast.LENGTH_LONG).show();
-                            }
-                        }
-                    });
-        });
-
-        // Set up Register TextView click listener
-        binding.tvRegister.setOnClickListener(v -> {
-            Log.d(TAG, "Register TextView clicked. Starting RegisterActivity.");
-            startActivity(new Intent(LoginActivity.this, RegisterActivity.class));
-            // Typically, you don't finish LoginActivity when going to RegisterActivity,
-            // so the user can come back if they decide not to register.
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
         });
 
         Log.d(TAG, "onCreate - END (UI and listeners set up)");
     }
-<<<<<<< HEAD
 
     private void loginUser() {
         Log.d(TAG, "loginUser() method called.");
@@ -205,12 +97,13 @@ public class LoginActivity extends AppCompatActivity {
             return;
         }
 
-        Log.d(TAG, "Attempting signInWithEmailAndPassword for: " + email);
+        Log.d(TAG, "Attempting signInWithEmailAndPassword.");
+        StartupTrace.begin(StartupTrace.LOGIN_TO_LIST);
         auth.signInWithEmailAndPassword(email, password)
                 .addOnCompleteListener(this, task -> {
                     if (task.isSuccessful()) {
                         // --- Login Successful ---
-                        Log.d(TAG, "Login SUCCESSFUL for: " + email);
+                        Log.d(TAG, "Login SUCCESSFUL.");
                         Toast.makeText(LoginActivity.this, "Login Successful!", Toast.LENGTH_SHORT).show();
                         Intent intent = new Intent(LoginActivity.this, MainActivity.class);
                         startActivity(intent);
@@ -219,7 +112,7 @@ public class LoginActivity extends AppCompatActivity {
                         finish();
                     } else {
                         // --- Login Failed: Check the exception ---
-                        Log.w(TAG, "Login FAILED for: " + email, task.getException());
+                        Log.w(TAG, "Login FAILED.", task.getException());
                         try {
                             throw task.getException();
                         } catch (FirebaseAuthInvalidUserException e) {
@@ -237,6 +130,4 @@ public class LoginActivity extends AppCompatActivity {
                     }
                 });
     }
-=======
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 }
\ No newline at end of file
@@ -2,16 +2,20 @@ package com.example.grocerylistapp;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
-<<<<<<< HEAD
 // Import View and MotionEvent for the OnTouchListener
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
-=======
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -21,74 +25,72 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-<<<<<<< HEAD
-=======
-
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
 
-    private TextView tvWelcome;
+    // Start fetching the next (or previous) page this many rows before the edge of the list
+    private static final int PAGE_PREFETCH_DISTANCE = 15;
+
+    private TextView tvWelcome, tvSubtitle;
+    private Button btnLists;
+    private EditText etSearch;
+    private Spinner spSortMode;
     private Button btnLogout, btnAdd;
     private RecyclerView rvGroceries;
+    private GroceryRowPool rowPool;
+    private FrameMetricsRecorder frameMetrics; // Null unless switched on for this run
 
-<<<<<<< HEAD
     private GroceryAdapter adapter;
-=======
-    private GroceryAdapter adapter; // Now this should resolve
-    private List<GroceryItem> groceryItemsListFromFirebase; // Store data from Firebase
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-    private DatabaseReference userGroceriesRef;
+    private GroceryRepository repository;
+    private GroceryRepository.Observer groceriesObserver;
+    private boolean firstFrameTraced;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
-
-        tvWelcome = findViewById(R.id.tvWelcome);
-        btnLogout = findViewById(R.id.btnLogout);
-        btnAdd = findViewById(R.id.btnAdd);
-        rvGroceries = findViewById(R.id.rvGroceries);
 
-<<<<<<< HEAD
-        // Load BOTH button animations for press and release
-        final Animation buttonPressAnim = AnimationUtils.loadAnimation(this, R.anim.button_press);
-        final Animation buttonReleaseAnim = AnimationUtils.loadAnimation(this, R.anim.button_release);
-
-=======
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+        // LaunchActivity has already routed signed-out users to LoginActivity; this only
+        // catches a sign-out since, e.g. when the task is restored, and runs before any inflation
         FirebaseUser currentUser = FirebaseUtils.getAuth().getCurrentUser();
-
         if (currentUser == null) {
             Log.d(TAG, "No current user, redirecting to LoginActivity.");
             startActivity(new Intent(this, LoginActivity.class));
-<<<<<<< HEAD
             // Apply page transition on entry
             overrideActivityTransition(OVERRIDE_TRANSITION_OPEN, R.anim.fade_in, R.anim.fade_out);
-=======
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
             finish();
             return;
         }
 
+        setContentView(R.layout.activity_main);
+
+        tvWelcome = findViewById(R.id.tvWelcome);
+        btnLogout = findViewById(R.id.btnLogout);
+        btnAdd = findViewById(R.id.btnAdd);
+        rvGroceries = findViewById(R.id.rvGroceries);
+        etSearch = findViewById(R.id.etSearch);
+        tvSubtitle = findViewById(R.id.tvSubtitle);
+        btnLists = findViewById(R.id.btnLists);
+        spSortMode = findViewById(R.id.spSortMode);
+
+        // Load BOTH button animations for press and release
+        final Animation buttonPressAnim = AnimationUtils.loadAnimation(this, R.anim.button_press);
+        final Animation buttonReleaseAnim = AnimationUtils.loadAnimation(this, R.anim.button_release);
+
         String name = currentUser.getDisplayName();
         if (name == null || name.trim().isEmpty()) {
             name = currentUser.getEmail();
         }
         tvWelcome.setText("Welcome " + (name != null ? name : "User"));
 
-<<<<<<< HEAD
         // Adapter setup
         adapter = new GroceryAdapter(new ArrayList<>(), new GroceryAdapter.OnItemActionListener() {
             @Override
@@ -98,86 +100,85 @@ public class MainActivity extends AppCompatActivity {
                     return;
                 }
                 Intent intent = new Intent(MainActivity.this, AddEditActivity.class);
-                intent.putExtra("ITEM_ID", item.getId());
-                intent.putExtra("ITEM_NAME", item.getItem());
-                intent.putExtra("ITEM_QTY", item.getQuantity());
+                // Only the id: AddEditActivity reads the live item from the repository
+                intent.putExtra(AddEditActivity.EXTRA_ITEM_ID, item.getId());
                 startActivity(intent);
                 // Apply page transition when editing an item
                 overrideActivityTransition(OVERRIDE_TRANSITION_OPEN, R.anim.fade_in, R.anim.fade_out);
-=======
-        groceryItemsListFromFirebase = new ArrayList<>(); // Initialize the list
-
-        adapter = new GroceryAdapter(groceryItemsListFromFirebase, new GroceryAdapter.OnItemActionListener() {
-            @Override // This should now be fine
-            public void onEdit(GroceryItem item) {
-                if (item == null || item.getId() == null) {
-                    Toast.makeText(MainActivity.this, "Cannot edit: Item data or ID is missing.", Toast.LENGTH_SHORT).show();
-                    Log.e(TAG, "onEdit: Item or Item ID is null. Name: " + (item != null ? item.getName() : "N/A"));
-                    return;
-                }
-                Log.d(TAG, "Editing item: " + item.getName() + " with ID: " + item.getId());
-                Intent intent = new Intent(MainActivity.this, AddEditActivity.class);
-                intent.putExtra("ITEM_ID", item.getId());
-                intent.putExtra("ITEM_NAME", item.getName());
-                intent.putExtra("ITEM_QTY", item.getQuantity());
-                startActivity(intent);
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
             }
 
             @Override
             public void onDelete(GroceryItem item) {
                 if (item == null || item.getId() == null) {
-<<<<<<< HEAD
                     Toast.makeText(MainActivity.this, "Cannot delete: Item data is missing.", Toast.LENGTH_SHORT).show();
                     return;
                 }
-                if (userGroceriesRef == null) {
-=======
-                    Toast.makeText(MainActivity.this, "Cannot delete: Item data or ID is missing.", Toast.LENGTH_SHORT).show();
-                    Log.e(TAG, "onDelete: Item or Item ID is null. Name: " + (item != null ? item.getName() : "N/A"));
-                    return;
-                }
-                if (userGroceriesRef == null) {
-                    Log.e(TAG, "userGroceriesRef is null, cannot delete item.");
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-                    Toast.makeText(MainActivity.this, "Database error. Please try again.", Toast.LENGTH_SHORT).show();
-                    return;
-                }
                 new AlertDialog.Builder(MainActivity.this)
                         .setTitle("Delete Item")
-<<<<<<< HEAD
                         .setMessage("Are you sure you want to delete '" + item.getItem() + "'?")
                         .setPositiveButton("Delete", (dialog, which) -> {
-                            userGroceriesRef.child(item.getId()).removeValue()
-                                    .addOnSuccessListener(aVoid -> Toast.makeText(MainActivity.this, "'" + item.getItem() + "' deleted.", Toast.LENGTH_SHORT).show())
-                                    .addOnFailureListener(e -> Toast.makeText(MainActivity.this, "Failed to delete: " + e.getMessage(), Toast.LENGTH_LONG).show());
-=======
-                        .setMessage("Are you sure you want to delete '" + item.getName() + "'?")
-                        .setPositiveButton("Delete", (dialog, which) -> {
-                            Log.d(TAG, "Attempting to delete item: " + item.getName() + " (ID: " + item.getId() + ")");
-                            userGroceriesRef.child(item.getId()).removeValue()
-                                    .addOnSuccessListener(aVoid -> {
-                                        Log.d(TAG, "Successfully deleted item with ID: " + item.getId());
-                                        Toast.makeText(MainActivity.this, "'" + item.getName() + "' deleted.", Toast.LENGTH_SHORT).show();
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to delete item with ID: " + item.getId(), e);
-                                        Toast.makeText(MainActivity.this, "Failed to delete: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                                    });
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+                            // Gone from the list at once; put back with a notice if Firebase refuses
+                            repository.delete(item);
+                            Toast.makeText(MainActivity.this, "'" + item.getItem() + "' deleted.", Toast.LENGTH_SHORT).show();
                         })
                         .setNegativeButton("Cancel", null)
                         .show();
             }
+
+            @Override
+            public void onQuantityStep(GroceryItem item, int delta) {
+                if (item == null || item.getId() == null) return;
+                repository.stepQuantity(item, delta);
+            }
         });
 
         rvGroceries.setLayoutManager(new LinearLayoutManager(this));
-<<<<<<< HEAD
         rvGroceries.setAdapter(adapter);
+        // Rows are inflated in the background while the cached list loads
+        rowPool = new GroceryRowPool(getResources().getDisplayMetrics());
+        rvGroceries.setRecycledViewPool(rowPool);
+        rowPool.prewarm(rvGroceries, adapter);
+        if (FrameMetricsRecorder.isEnabled(getIntent())) {
+            frameMetrics = new FrameMetricsRecorder();
+            adapter.setFrameMetrics(frameMetrics);
+        }
+        rvGroceries.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (frameMetrics != null) {
+                    frameMetrics.mark(FrameStats.TAG_SCROLL);
+                }
+                if (layoutManager == null || repository == null) return;
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PAGE_PREFETCH_DISTANCE) {
+                    repository.loadMore();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PAGE_PREFETCH_DISTANCE) {
+                    repository.loadPrevious();
+                }
+            }
+        });
+
+        repository = GroceryRepository.getInstance(this);
+        loadGroceries(currentUser.getUid());
 
-        String userId = currentUser.getUid();
-        userGroceriesRef = FirebaseDatabase.getInstance().getReference("Users").child(userId);
-        loadGroceries();
+        // Filtering runs against the name index on the pipeline thread, so every keystroke can query it
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                repository.setFilter(s.toString());
+            }
+        });
+
+        setUpSortModes();
+
+        btnLists.setOnClickListener(v -> showListsDialog());
+        showOpenListName();
 
         // Create a reusable OnTouchListener for animations and actions
         View.OnTouchListener buttonTouchListener = (view, event) -> {
@@ -196,6 +197,7 @@ public class MainActivity extends AppCompatActivity {
                         // Apply page transition
                         overrideActivityTransition(OVERRIDE_TRANSITION_OPEN, R.anim.fade_in, R.anim.fade_out);
                     } else if (view.getId() == R.id.btnLogout) {
+                        repository.signOut();
                         FirebaseUtils.getAuth().signOut();
                         Log.d(TAG, "User signed out.");
                         Intent intent = new Intent(MainActivity.this, LoginActivity.class);
@@ -213,91 +215,187 @@ public class MainActivity extends AppCompatActivity {
         // Apply the new listener to the buttons, replacing the old OnClickListeners
         btnAdd.setOnTouchListener(buttonTouchListener);
         btnLogout.setOnTouchListener(buttonTouchListener);
-=======
-        rvGroceries.setAdapter(adapter); // This should now be fine
-
-        String userId = currentUser.getUid();
-        userGroceriesRef = FirebaseDatabase.getInstance()
-                .getReference("groceries")
-                .child(userId);
-
-        Log.d(TAG, "Listening for data at path: " + userGroceriesRef.toString());
-        loadGroceries();
+    }
 
-        btnLogout.setOnClickListener(v -> {
-            FirebaseUtils.getAuth().signOut();
-            Log.d(TAG, "User signed out.");
-            startActivity(new Intent(MainActivity.this, LoginActivity.class));
-            finish();
-        });
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (frameMetrics != null) {
+            frameMetrics.start(getWindow());
+        }
+    }
 
-        btnAdd.setOnClickListener(v ->
-                startActivity(new Intent(MainActivity.this, AddEditActivity.class)));
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (frameMetrics != null) {
+            frameMetrics.stop();
+            frameMetrics.dump(this);
+        }
     }
 
-    private void loadGroceries() {
-        if (userGroceriesRef == null) {
-            Log.e(TAG, "userGroceriesRef is null in loadGroceries.");
-            return;
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (rowPool != null) {
+            rowPool.release();
+        }
+        if (repository != null && groceriesObserver != null) {
+            // groceriesObserver is removed by the lifecycle.
+            // Keep syncing across rotation so the list doesn't have to be rebuilt
+            if (!isChangingConfigurations()) {
+                repository.stop();
+            }
         }
+    }
 
-        userGroceriesRef.addValueEventListener(new ValueEventListener() {
+    // Shows the cached list as soon as it's read from disk, then each list the sync publishes
+    private void loadGroceries(String userId) {
+        groceriesObserver = new GroceryRepository.Observer() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-<<<<<<< HEAD
-                List<GroceryItem> tempItems = new ArrayList<>();
-=======
-                List<GroceryItem> tempItems = new ArrayList<>(); // Create a temporary list
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-                if (snapshot.exists()) {
-                    for (DataSnapshot childSnapshot : snapshot.getChildren()) {
-                        try {
-                            GroceryItem item = childSnapshot.getValue(GroceryItem.class);
-                            if (item != null) {
-                                item.setId(childSnapshot.getKey());
-                                tempItems.add(item);
-<<<<<<< HEAD
-=======
-                                Log.d(TAG, "Loaded item: " + item.getName() + " (ID: " + item.getId() + ")");
-                            } else {
-                                Log.w(TAG, "Null item loaded from snapshot key: " + childSnapshot.getKey());
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing item: " + childSnapshot.getKey(), e);
-                        }
-                    }
-                } else {
-                    Log.d(TAG, "No groceries found for user.");
-                }
-<<<<<<< HEAD
-                adapter.setItems(tempItems);
-                Log.d(TAG, "Grocery list updated. Item count: " + tempItems.size());
-=======
-                // Use the adapter's setItems method to update the list and notify
-                adapter.setItems(tempItems); // << This will call notifyDataSetChanged internally
-                Log.d(TAG, "Grocery list updated. Item count: " + tempItems.size());
-
-                if (tempItems.isEmpty()) {
-                    Toast.makeText(MainActivity.this, "No items yet. Add something!", Toast.LENGTH_SHORT).show();
+            public void onItemsChanged(List<GroceryItem> items) {
+                // Parsed and ordered on the pipeline thread; the adapter diffs it there too
+                adapter.setItems(items);
+                if (!items.isEmpty()) {
+                    traceFirstListFrame();
                 }
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Failed to load groceries: ", error.toException());
-<<<<<<< HEAD
-                Toast.makeText(MainActivity.this, "Logged out", Toast.LENGTH_SHORT).show();
+            public void onSyncError(DatabaseError error) {
+                Toast.makeText(MainActivity.this, "Failed to load data: " + error.getMessage(), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onWriteRolledBack(GroceryItem item, Exception error) {
+                String name = item != null ? item.getItem() : "item";
+                String reason = error != null ? error.getMessage() : "unknown error";
+                Toast.makeText(MainActivity.this, "Couldn't save '" + name + "', change undone: " + reason, Toast.LENGTH_LONG).show();
+            }
+        };
+        repository.observe(this, groceriesObserver);
+        repository.start(userId);
+    }
+
+    // The user's index of shared lists is only read here, when they ask to switch
+    private void showListsDialog() {
+        repository.loadSharedLists()
+                .addOnSuccessListener(this, lists -> {
+                    List<String> labels = new ArrayList<>();
+                    List<Runnable> actions = new ArrayList<>();
+                    labels.add("My list");
+                    actions.add(() -> switchToList(null, null));
+                    for (Map.Entry<String, String> list : lists.entrySet()) {
+                        labels.add(list.getValue());
+                        actions.add(() -> switchToList(list.getKey(), list.getValue()));
+                    }
+                    labels.add("New shared list\u2026");
+                    actions.add(() -> promptForText("New shared list", "List name", this::createSharedList));
+                    labels.add("Join a list\u2026");
+                    actions.add(() -> promptForText("Join a list", "Invite code", this::joinSharedList));
+                    String openListId = repository.getOpenListId();
+                    if (openListId != null) {
+                        labels.add("Invite someone\u2026");
+                        actions.add(() -> shareInviteCode(openListId));
+                        labels.add("Leave this list");
+                        actions.add(() -> {
+                            repository.leaveSharedList(openListId);
+                            showOpenListName();
+                        });
+                    }
+                    new AlertDialog.Builder(this)
+                            .setTitle("Lists")
+                            .setItems(labels.toArray(new CharSequence[0]), (dialog, which) -> actions.get(which).run())
+                            .show();
+                })
+                .addOnFailureListener(this, e -> Toast.makeText(this, "Couldn't load lists: " + e.getMessage(), Toast.LENGTH_LONG).show());
+    }
+
+    private void switchToList(String listId, String name) {
+        repository.openList(listId, name);
+        etSearch.setText(""); // The filter belonged to the previous list
+        showOpenListName();
+    }
+
+    private void showOpenListName() {
+        String name = repository.getOpenListName();
+        tvSubtitle.setText(name == null ? "Here's your grocery list" : "Shared list: " + name);
+    }
+
+    private void createSharedList(String name) {
+        repository.createSharedList(name)
+                .addOnSuccessListener(this, listId -> switchToList(listId, name))
+                .addOnFailureListener(this, e -> Toast.makeText(this, "Couldn't create list: " + e.getMessage(), Toast.LENGTH_LONG).show());
+    }
+
+    private void joinSharedList(String code) {
+        repository.joinSharedList(code)
+                .addOnSuccessListener(this, name -> switchToList(code, name))
+                .addOnFailureListener(this, e -> Toast.makeText(this, "Couldn't join: " + e.getMessage(), Toast.LENGTH_LONG).show());
+    }
+
+    private void shareInviteCode(String listId) {
+        Intent share = new Intent(Intent.ACTION_SEND);
+        share.setType("text/plain");
+        share.putExtra(Intent.EXTRA_TEXT, "Join my grocery list with the code " + listId);
+        startActivity(Intent.createChooser(share, "Invite to list"));
+    }
+
+    private void promptForText(String title, String hint, Consumer<String> onEntered) {
+        EditText input = new EditText(this);
+        input.setHint(hint);
+        input.setSingleLine(true);
+        new AlertDialog.Builder(this)
+                .setTitle(title)
+                .setView(input)
+                .setPositiveButton("OK", (dialog, which) -> {
+                    String text = input.getText().toString().trim();
+                    if (!text.isEmpty()) {
+                        onEntered.accept(text);
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // The repository keeps the mode, so it survives rotation and is shown again here
+    private void setUpSortModes() {
+        GrocerySortMode[] modes = GrocerySortMode.values();
+        List<String> labels = new ArrayList<>();
+        for (GrocerySortMode mode : modes) {
+            labels.add(mode.label);
+        }
+        ArrayAdapter<String> sortAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, labels);
+        sortAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spSortMode.setAdapter(sortAdapter);
+        spSortMode.setSelection(repository.getSortMode().ordinal(), false);
+        spSortMode.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                repository.setSortMode(modes[position]);
             }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) { }
         });
     }
-}
-=======
-                Toast.makeText(MainActivity.this, "Failed to load data: " + error.getMessage(), Toast.LENGTH_LONG).show();
+
+    // Ends the first-frame trace section on the first draw that has rows in it, and reports
+    // the activity fully drawn at that point for startup benchmarks
+    private void traceFirstListFrame() {
+        if (firstFrameTraced) return;
+        firstFrameTraced = true;
+        StartupTrace.begin(StartupTrace.FIRST_LIST_FRAME);
+        rvGroceries.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (adapter.getItemCount() == 0) return true; // The first diff hasn't landed yet
+                rvGroceries.getViewTreeObserver().removeOnPreDrawListener(this);
+                StartupTrace.end(StartupTrace.FIRST_LIST_FRAME);
+                StartupTrace.end(StartupTrace.LOGIN_TO_LIST);
+                reportFullyDrawn();
+                return true;
             }
         });
     }
 }
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
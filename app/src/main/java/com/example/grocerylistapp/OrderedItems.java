@@ -0,0 +1,83 @@
+package com.example.grocerylistapp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A list of items kept sorted by a comparator. Single inserts, updates and removals find
+ * their position by binary search instead of re-sorting, and changing the comparator sorts
+ * the items already held once, without fetching anything again.
+ *
+ * The comparator must never report two distinct items as equal (see {@link GrocerySortMode}).
+ * Not thread-safe.
+ */
+final class OrderedItems {
+
+    private final List<GroceryItem> items = new ArrayList<>();
+    private Comparator<GroceryItem> comparator;
+
+    OrderedItems(Comparator<GroceryItem> comparator) {
+        this.comparator = comparator;
+    }
+
+    void setComparator(Comparator<GroceryItem> comparator) {
+        this.comparator = comparator;
+        Collections.sort(items, comparator);
+    }
+
+    void setAll(Collection<GroceryItem> newItems) {
+        items.clear();
+        items.addAll(newItems);
+        Collections.sort(items, comparator);
+    }
+
+    void add(GroceryItem item) {
+        int position = Collections.binarySearch(items, item, comparator);
+        items.add(position < 0 ? -position - 1 : position, item);
+    }
+
+    /** Removes old, which must be the value currently held, so its position can be found. */
+    boolean remove(GroceryItem old) {
+        int position = Collections.binarySearch(items, old, comparator);
+        if (position < 0) return false;
+        items.remove(position);
+        return true;
+    }
+
+    /** Swaps old for updated, moving it only if its sort position changed. */
+    void replace(GroceryItem old, GroceryItem updated) {
+        int position = Collections.binarySearch(items, old, comparator);
+        if (position < 0) {
+            add(updated);
+            return;
+        }
+        boolean afterPrevious = position == 0 || comparator.compare(items.get(position - 1), updated) < 0;
+        boolean beforeNext = position == items.size() - 1 || comparator.compare(updated, items.get(position + 1)) < 0;
+        if (afterPrevious && beforeNext) {
+            items.set(position, updated);
+        } else {
+            items.remove(position);
+            add(updated);
+        }
+    }
+
+    void clear() {
+        items.clear();
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    GroceryItem get(int position) {
+        return items.get(position);
+    }
+
+    /** A copy of the items in order. */
+    List<GroceryItem> toList() {
+        return new ArrayList<>(items);
+    }
+}
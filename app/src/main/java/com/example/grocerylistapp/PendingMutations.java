@@ -0,0 +1,71 @@
+package com.example.grocerylistapp;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes that have been shown locally but not yet confirmed by Firebase, in the order they
+ * were made. Each remembers the item as it was before, so a failed write can be undone.
+ *
+ * Several writes to the same item can be in flight at once. When one fails, only the most
+ * recent of them decides what's shown: an older failure doesn't touch the screen, it just
+ * hands its "before" to the next write, so undoing that one later goes back far enough.
+ *
+ * Not thread-safe; GroceryRepository only uses it on the main thread.
+ */
+final class PendingMutations {
+
+    static final class Mutation {
+        final long sequence;
+        final String id;
+        /** Null when the write created the item. */
+        GroceryItem before;
+        /** Null when the write deleted the item. */
+        final GroceryItem after;
+
+        Mutation(long sequence, String id, GroceryItem before, GroceryItem after) {
+            this.sequence = sequence;
+            this.id = id;
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private final Map<Long, Mutation> pending = new LinkedHashMap<>();
+    private long nextSequence;
+
+    /** Records a write of after over before (either may be null) and returns its sequence. */
+    long begin(String id, GroceryItem before, GroceryItem after) {
+        long sequence = nextSequence++;
+        pending.put(sequence, new Mutation(sequence, id, before, after));
+        return sequence;
+    }
+
+    /** The server accepted the write; nothing more to do for it. */
+    void confirm(long sequence) {
+        pending.remove(sequence);
+    }
+
+    /**
+     * The server rejected the write. Returns it if it should be undone on screen, or null if
+     * a later write to the same item is still pending and now carries its "before" instead.
+     */
+    Mutation fail(long sequence) {
+        Mutation failed = pending.remove(sequence);
+        if (failed == null) return null;
+        Iterator<Mutation> later = pending.values().iterator();
+        while (later.hasNext()) {
+            Mutation next = later.next();
+            if (next.sequence > sequence && next.id.equals(failed.id)) {
+                next.before = failed.before;
+                return null;
+            }
+        }
+        return failed;
+    }
+
+    void clear() {
+        pending.clear();
+    }
+}
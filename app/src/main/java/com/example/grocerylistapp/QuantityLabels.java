@@ -0,0 +1,28 @@
+package com.example.grocerylistapp;
+
+/**
+ * "Qty: n" texts for list rows. Every quantity the app can write (0 to
+ * {@link BulkItemParser#MAX_QUANTITY}) is built once on first use and then shared, so
+ * binding a row doesn't allocate a new string each time. Larger values written by other
+ * clients are still formatted, just not cached.
+ *
+ * Not thread-safe; GroceryAdapter only uses it on the main thread.
+ */
+final class QuantityLabels {
+
+    private static final String PREFIX = "Qty: ";
+
+    private final String[] labels = new String[BulkItemParser.MAX_QUANTITY + 1];
+
+    String forQuantity(int quantity) {
+        if (quantity < 0 || quantity >= labels.length) {
+            return PREFIX + quantity;
+        }
+        String label = labels[quantity];
+        if (label == null) {
+            label = PREFIX + quantity;
+            labels[quantity] = label;
+        }
+        return label;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.grocerylistapp;
 
-<<<<<<< HEAD
 import android.content.Intent;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -14,48 +13,24 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
-=======
-
-import android.content.Intent;
-import android.os.Bundle;
-import android.text.TextUtils;
-import android.widget.Toast;
-
-
-import androidx.annotation.NonNull;
-import androidx.appcompat.app.AppCompatActivity;
-
-
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 import com.example.grocerylistapp.databinding.ActivityRegisterBinding;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
-<<<<<<< HEAD
 import com.google.firebase.auth.FirebaseAuthUserCollisionException;
 import com.google.firebase.auth.UserProfileChangeRequest;
 
-=======
-import com.google.firebase.auth.UserProfileChangeRequest;
-
-
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
 public class RegisterActivity extends AppCompatActivity {
     private ActivityRegisterBinding binding;
     private FirebaseAuth auth;
 
-<<<<<<< HEAD
-=======
-
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         binding = ActivityRegisterBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-<<<<<<< HEAD
         auth = FirebaseUtils.getAuth();
 
         // Load button animations
@@ -138,39 +113,3 @@ public class RegisterActivity extends AppCompatActivity {
         overrideActivityTransition(OVERRIDE_TRANSITION_CLOSE, R.anim.fade_in, R.anim.fade_out);
     }
 }
-=======
-
-        auth = FirebaseUtils.getAuth();
-
-
-        binding.btnRegister.setOnClickListener(v -> {
-            String name = binding.etName.getText().toString().trim();
-            String email = binding.etEmail.getText().toString().trim();
-            String password = binding.etPassword.getText().toString().trim();
-
-
-            if (TextUtils.isEmpty(email) || password.length() < 6) {
-                Toast.makeText(this, "Please enter valid email and password (6+)", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-
-            auth.createUserWithEmailAndPassword(email, password).addOnCompleteListener(new OnCompleteListener<AuthResult>() {
-                @Override
-                public void onComplete(@NonNull Task<AuthResult> task) {
-                    if (task.isSuccessful()) {
-                        if (auth.getCurrentUser() != null) {
-                            UserProfileChangeRequest profile = new UserProfileChangeRequest.Builder().setDisplayName(name).build();
-                            auth.getCurrentUser().updateProfile(profile);
-                        }
-                        startActivity(new Intent(RegisterActivity.this, MainActivity.class));
-                        finish();
-                    } else {
-                        Toast.makeText(RegisterActivity.this, "Registration failed: " + task.getException().getMessage(), Toast.LENGTH_LONG).show();
-                    }
-                }
-            });
-        });
-    }
-}
->>>>>>> 1dff3c344a2083488f6992bc02c8ba79f81ae847
@@ -0,0 +1,115 @@
+package com.example.grocerylistapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database layout for lists shared by a household, and the multi-path updates that keep
+ * its parts consistent:
+ *
+ *   lists/{listId}/meta        {name, owner, updatedAt}
+ *   lists/{listId}/members     {uid: true, ...}
+ *   lists/{listId}/items       the items, same shape as a personal list
+ *   userLists/{uid}/{listId}   {name}: each user's index of the lists they're in
+ *
+ * A device only reads a user's index (once, to offer a choice) and the items and members of
+ * the list that's open, so what it downloads doesn't grow with the number of lists or
+ * members. Every change that touches more than one of these nodes is built here as a
+ * single update, so they can't drift apart. An item write stamps the list's own meta, which
+ * any member may write, rather than each member's index, which only its user may; a reader
+ * wanting the last-change time watches lists/{listId}/meta/updatedAt.
+ *
+ * Database rules should let members read and write their list, let a user write their own
+ * index and their own members entry, and let any signed-in user read a list's meta (the
+ * list id is the invite code).
+ */
+public final class SharedLists {
+
+    static final String LISTS = "lists";
+    static final String USER_LISTS = "userLists";
+    static final String META = "meta";
+    static final String MEMBERS = "members";
+    static final String ITEMS = "items";
+    static final String KEY_NAME = "name";
+    static final String KEY_OWNER = "owner";
+    static final String KEY_UPDATED_AT = "updatedAt";
+
+    private SharedLists() { }
+
+    public static String itemsPath(String listId) {
+        return listPath(listId) + "/" + ITEMS;
+    }
+
+    public static String membersPath(String listId) {
+        return listPath(listId) + "/" + MEMBERS;
+    }
+
+    public static String metaPath(String listId) {
+        return listPath(listId) + "/" + META;
+    }
+
+    public static String userListsPath(String uid) {
+        return USER_LISTS + "/" + requireKey(uid);
+    }
+
+    /** Creates the list with its owner as the only member. */
+    public static Map<String, Object> create(String listId, String ownerUid, String name) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(metaPath(listId) + "/" + KEY_NAME, name);
+        updates.put(metaPath(listId) + "/" + KEY_OWNER, ownerUid);
+        updates.putAll(join(listId, ownerUid, name));
+        return updates;
+    }
+
+    /** Adds uid to the list's members and the list to uid's index. */
+    public static Map<String, Object> join(String listId, String uid, String name) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(membersPath(listId) + "/" + requireKey(uid), true);
+        updates.put(indexEntryPath(uid, listId) + "/" + KEY_NAME, name);
+        return updates;
+    }
+
+    public static Map<String, Object> leave(String listId, String uid) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put(membersPath(listId) + "/" + requireKey(uid), null);
+        updates.put(indexEntryPath(uid, listId), null);
+        return updates;
+    }
+
+    /**
+     * Item writes to a shared list: itemUpdates (paths relative to the list's items) moved
+     * under the list, plus the list's last-change time in its meta.
+     */
+    public static Map<String, Object> itemWrite(String listId, Map<String, Object> itemUpdates,
+                                                Object timestamp) {
+        Map<String, Object> updates = new HashMap<>();
+        String items = itemsPath(listId);
+        for (Map.Entry<String, Object> entry : itemUpdates.entrySet()) {
+            updates.put(items + "/" + entry.getKey(), entry.getValue());
+        }
+        updates.put(metaPath(listId) + "/" + KEY_UPDATED_AT, timestamp);
+        return updates;
+    }
+
+    private static String listPath(String listId) {
+        return LISTS + "/" + requireKey(listId);
+    }
+
+    private static String indexEntryPath(String uid, String listId) {
+        return userListsPath(uid) + "/" + requireKey(listId);
+    }
+
+    // Ids go into paths, so they must be single, valid Firebase keys
+    static String requireKey(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Empty key");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '/' || c == '.' || c == '#' || c == '$' || c == '[' || c == ']') {
+                throw new IllegalArgumentException("Invalid key: " + key);
+            }
+        }
+        return key;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.grocerylistapp;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps Firebase push keys to the long ids RecyclerView's stable-id support needs.
+ * Each key is hashed once (64-bit FNV-1a) and the result is cached; on the rare collision
+ * the next free value is taken instead, so two keys never share an id for as long as the
+ * registry lives and a key that leaves and comes back keeps its old id.
+ *
+ * Not thread-safe; GroceryAdapter only uses it on the main thread.
+ */
+final class StableIds {
+
+    // Same value as RecyclerView.NO_ID, kept here so this class stays plain Java
+    static final long NO_ID = -1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<String, Long> idsByKey = new HashMap<>();
+    private final Set<Long> assigned = new HashSet<>();
+
+    long idFor(String key) {
+        if (key == null) return NO_ID;
+        Long cached = idsByKey.get(key);
+        if (cached != null) return cached;
+        return assign(key, hash(key));
+    }
+
+    // Claims candidate for key, or the first free value after it
+    long assign(String key, long candidate) {
+        long id = candidate;
+        while (id == NO_ID || !assigned.add(id)) {
+            id++;
+        }
+        idsByKey.put(key, id);
+        return id;
+    }
+
+    static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
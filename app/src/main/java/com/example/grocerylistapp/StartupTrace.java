@@ -0,0 +1,58 @@
+package com.example.grocerylistapp;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Named trace sections for the cold-start path, visible in Perfetto/systrace and picked up
+ * by macrobenchmarks. Each section is recorded once per process: later calls are ignored,
+ * so callers don't need to track whether they are on the first launch. Sections are async
+ * so they can begin and end on different threads.
+ *
+ * When a section ends, the time since process start is logged, with a warning once the
+ * first list frame goes over {@link #FIRST_FRAME_BUDGET_MS}.
+ */
+final class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    static final String APP_START = "GroceryApp.onCreate";
+    static final String FIRST_AUTH_CHECK = "firstAuthCheck";
+    // Reading the first page of cached items, shown before the server answers
+    static final String FIRST_CACHE_LOAD = "firstCacheLoad";
+    // Until the server's first page has loaded
+    static final String FIRST_SNAPSHOT = "firstSnapshot";
+    static final String FIRST_LIST_FRAME = "firstGroceriesFrame";
+    // From tapping Login to the first list frame; only recorded when the process starts signed out
+    static final String LOGIN_TO_LIST = "loginToList";
+
+    static final long FIRST_FRAME_BUDGET_MS = 1000;
+
+    private static final int COOKIE = 0; // Each section name is only used once
+
+    private static final Set<String> begun = new HashSet<>();
+    private static final Set<String> ended = new HashSet<>();
+
+    private StartupTrace() { }
+
+    static synchronized void begin(String section) {
+        if (!begun.add(section)) return;
+        Trace.beginAsyncSection(section, COOKIE);
+    }
+
+    static synchronized void end(String section) {
+        if (!begun.contains(section) || !ended.add(section)) return;
+        Trace.endAsyncSection(section, COOKIE);
+        long sinceStart = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        if (FIRST_LIST_FRAME.equals(section) && sinceStart > FIRST_FRAME_BUDGET_MS) {
+            Log.w(TAG, section + " at " + sinceStart + "ms, over the " + FIRST_FRAME_BUDGET_MS + "ms budget");
+        } else {
+            Log.d(TAG, section + " at " + sinceStart + "ms");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BulkItemParserTest {
+
+    private static void assertLine(String line, String expectedName, int expectedQty) {
+        GroceryItem item = BulkItemParser.parseLine(line);
+        assertNotNull(line, item);
+        assertEquals(line, expectedName, item.getItem());
+        assertEquals(line, expectedQty, item.getQuantity());
+    }
+
+    @Test
+    public void parseLine_understandsQuantityForms() {
+        assertLine("3 x eggs", "eggs", 3);
+        assertLine("3x eggs", "eggs", 3);
+        assertLine("3 eggs", "eggs", 3);
+        assertLine("eggs x 3", "eggs", 3);
+        assertLine("eggs x3", "eggs", 3);
+        assertLine("eggs", "eggs", 1);
+        assertLine("- 2 x whole milk", "whole milk", 2);
+    }
+
+    @Test
+    public void parseLine_keepsNumbersThatArePartOfTheName() {
+        assertLine("7up", "7up", 1);
+        assertLine("2 x 7up", "7up", 2);
+    }
+
+    @Test
+    public void parseLine_clampsQuantity() {
+        assertLine("0 x bread", "bread", 1);
+    }
+
+    @Test
+    public void parse_skipsBlankLinesAndLeavesIdsUnset() {
+        List<GroceryItem> items = BulkItemParser.parse("3 x eggs\n\n  \r\nbread\n");
+        assertEquals(2, items.size());
+        assertNull(items.get(0).getId());
+        assertEquals("bread", items.get(1).getItem());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long DEADLINE = 16 * MS;
+
+    @Test
+    public void jankCount_countsFramesOverTheirDeadline() {
+        FrameStats stats = new FrameStats();
+        stats.record(8 * MS, DEADLINE, 0);
+        stats.record(16 * MS, DEADLINE, 0);
+        stats.record(17 * MS, DEADLINE, 0);
+        stats.record(40 * MS, DEADLINE, 0);
+        assertEquals(4, stats.frameCount());
+        assertEquals(2, stats.jankCount(-1));
+    }
+
+    @Test
+    public void jankCount_byTag() {
+        FrameStats stats = new FrameStats();
+        stats.record(30 * MS, DEADLINE, 1 << FrameStats.TAG_INFLATE | 1 << FrameStats.TAG_BIND);
+        stats.record(10 * MS, DEADLINE, 1 << FrameStats.TAG_BIND);
+        stats.record(30 * MS, DEADLINE, 1 << FrameStats.TAG_SNAPSHOT);
+        assertEquals(1, stats.jankCount(FrameStats.TAG_INFLATE));
+        assertEquals(1, stats.jankCount(FrameStats.TAG_BIND));
+        assertEquals(1, stats.jankCount(FrameStats.TAG_SNAPSHOT));
+        assertEquals(0, stats.jankCount(FrameStats.TAG_SCROLL));
+    }
+
+    @Test
+    public void summary_listsAllFramesAndSeenTags() {
+        FrameStats stats = new FrameStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i * MS, DEADLINE, i % 10 == 0 ? 1 << FrameStats.TAG_SCROLL : 0);
+        }
+        String[] lines = stats.summary().trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("all frames=100 janky=84 p50=50.0 p90=90.0 p99=99.0 max=100.0", lines[0].trim());
+        assertEquals("scroll frames=10 janky=9 p50=50.0 p90=90.0 p99=100.0 max=100.0", lines[1].trim());
+    }
+
+    @Test
+    public void record_stopsAtMaxFrames() {
+        FrameStats stats = new FrameStats();
+        for (int i = 0; i < FrameStats.MAX_FRAMES + 5; i++) {
+            stats.record(MS, DEADLINE, 0);
+        }
+        stats.addDropped(2);
+        assertEquals(FrameStats.MAX_FRAMES, stats.frameCount());
+        assertTrue(stats.summary().contains("unrecorded frames=7"));
+    }
+
+    @Test
+    public void percentile_usesNearestRank() {
+        long[] sorted = {1, 2, 3, 4};
+        assertEquals(2, FrameStats.percentile(sorted, 4, 50));
+        assertEquals(4, FrameStats.percentile(sorted, 4, 99));
+        assertEquals(1, FrameStats.percentile(sorted, 4, 0));
+        assertEquals(0, FrameStats.percentile(sorted, 0, 50));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GroceryItemCodecTest {
+
+    private static Map<String, Object> node(Object... keysAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    public void decode_readsVersion1Layout() {
+        GroceryItem item = GroceryItemCodec.decode("-Nabc", node("id", "-Nabc", "item", "Milk", "quantity", 2L));
+        assertEquals(new GroceryItem("-Nabc", "Milk", 2), item);
+    }
+
+    @Test
+    public void decode_readsLegacyNameField() {
+        GroceryItem item = GroceryItemCodec.decode("-Nabc", node("name", "Eggs", "quantity", 12L));
+        assertEquals("Eggs", item.getItem());
+        assertEquals(12, item.getQuantity());
+    }
+
+    @Test
+    public void decode_readsLegacyCapitalisedItemField() {
+        GroceryItem item = GroceryItemCodec.decode("-Nabc", node("Item", "Rice", "quantity", 1L));
+        assertEquals(new GroceryItem("-Nabc", "Rice", 1), item);
+    }
+
+    @Test
+    public void decode_prefersNewestNameField() {
+        assertEquals("n", GroceryItemCodec.decode("k", node("n", "n", "item", "item", "name", "name", "Item", "Item")).getItem());
+        assertEquals("item", GroceryItemCodec.decode("k", node("item", "item", "name", "name", "Item", "Item")).getItem());
+        assertEquals("name", GroceryItemCodec.decode("k", node("name", "name", "Item", "Item")).getItem());
+    }
+
+    @Test
+    public void decode_usesNodeKeyAsId() {
+        GroceryItem item = GroceryItemCodec.decode("-Nkey", node("id", "-Nother", "item", "Bread"));
+        assertEquals("-Nkey", item.getId());
+    }
+
+    @Test
+    public void decode_toleratesMissingAndBadFields() {
+        assertEquals(0, GroceryItemCodec.decode("k", node("item", "Tea")).getQuantity());
+        assertEquals(0, GroceryItemCodec.decode("k", node("quantity", "lots")).getQuantity());
+        assertEquals(3, GroceryItemCodec.decode("k", node("quantity", " 3 ")).getQuantity());
+        assertEquals(2, GroceryItemCodec.decode("k", node("quantity", 2.7d)).getQuantity());
+        assertEquals(Integer.MAX_VALUE, GroceryItemCodec.decode("k", node("quantity", Long.MAX_VALUE)).getQuantity());
+        assertNull(GroceryItemCodec.decode("k", node("quantity", 1L)).getItem());
+    }
+
+    @Test
+    public void decode_rejectsNonObjectNodes() {
+        assertNull(GroceryItemCodec.decode("k", "just a string"));
+        assertNull(GroceryItemCodec.decode("k", null));
+    }
+
+    @Test
+    public void encode_writesCompactVersionedLayoutWithoutId() {
+        Map<String, Object> encoded = GroceryItemCodec.encode(new GroceryItem("-Nabc", "Apples", 6));
+        assertEquals(GroceryItemCodec.SCHEMA_VERSION, encoded.get("v"));
+        assertEquals("Apples", encoded.get("n"));
+        assertEquals(6, encoded.get("q"));
+        assertEquals(3, encoded.size());
+    }
+
+    @Test
+    public void decode_readsCompactLayout() {
+        GroceryItem item = GroceryItemCodec.decode("-Nabc", node("v", 2L, "n", "Milk", "q", 2L));
+        assertEquals(new GroceryItem("-Nabc", "Milk", 2), item);
+    }
+
+    @Test
+    public void decode_prefersCompactFieldsOnPartlyUpdatedNodes() {
+        // A version 1 node after a quantity-only update
+        GroceryItem item = GroceryItemCodec.decode("-Nabc", node("id", "-Nabc", "item", "Milk", "quantity", 2L, "q", 5L));
+        assertEquals(new GroceryItem("-Nabc", "Milk", 5), item);
+    }
+
+    @Test
+    public void isOutdated_findsEveryNodeNotPurelyCompact() {
+        assertTrue(GroceryItemCodec.isOutdated(node("id", "-Nabc", "item", "Milk", "quantity", 2L)));
+        assertTrue(GroceryItemCodec.isOutdated(node("id", "-Nabc", "item", "Milk", "quantity", 2L, "q", 5L)));
+        assertTrue(GroceryItemCodec.isOutdated(node("name", "Eggs")));
+        assertTrue(GroceryItemCodec.isOutdated(node("v", 1L, "n", "Milk", "q", 2L)));
+        assertFalse(GroceryItemCodec.isOutdated(node("v", 2L, "n", "Milk", "q", 2L)));
+        assertFalse(GroceryItemCodec.isOutdated(GroceryItemCodec.encode(new GroceryItem("-Nabc", "Apples", 6))));
+        assertFalse(GroceryItemCodec.isOutdated("just a string"));
+    }
+
+    @Test
+    public void encode_roundTrips() {
+        GroceryItem original = new GroceryItem("-Nabc", "Apples", 6);
+        assertEquals(original, GroceryItemCodec.decode("-Nabc", GroceryItemCodec.encode(original)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GroceryNameIndexTest {
+
+    private static Set<String> ids(String... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    private static GroceryNameIndex indexOf(GroceryItem... items) {
+        GroceryNameIndex index = new GroceryNameIndex();
+        for (GroceryItem item : items) {
+            index.put(item);
+        }
+        return index;
+    }
+
+    @Test
+    public void search_matchesWordPrefixesCaseInsensitively() {
+        GroceryNameIndex index = indexOf(
+                new GroceryItem("a", "Whole Milk", 1),
+                new GroceryItem("b", "Milk chocolate", 1),
+                new GroceryItem("c", "Bread", 1));
+        assertEquals(ids("a", "b"), index.search("MIL"));
+        assertEquals(ids("a"), index.search("whole m"));
+        assertEquals(ids("a"), index.search("m whole"));
+        assertEquals(ids("c"), index.search(" bread! "));
+        assertTrue(index.search("ilk").isEmpty());
+        assertTrue(index.search("   ").isEmpty());
+    }
+
+    @Test
+    public void put_replacesTheOldNameOfAnItem() {
+        GroceryNameIndex index = indexOf(new GroceryItem("a", "Milk", 1));
+        index.put(new GroceryItem("a", "Oat milk", 2));
+        assertEquals(ids("a"), index.search("oat"));
+
+        index.put(new GroceryItem("a", "Butter", 2));
+        assertTrue(index.search("milk").isEmpty());
+        assertEquals(ids("a"), index.search("butter"));
+    }
+
+    @Test
+    public void remove_dropsTheItemFromResults() {
+        GroceryNameIndex index = indexOf(
+                new GroceryItem("a", "Eggs", 1),
+                new GroceryItem("b", "Eggplant", 1));
+        index.remove("a");
+        assertEquals(ids("b"), index.search("egg"));
+        index.remove("b");
+        assertEquals(Collections.emptySet(), index.search("egg"));
+    }
+
+    @Test
+    public void matches_agreesWithSearch() {
+        assertTrue(GroceryNameIndex.matches("whole m", "Whole Milk"));
+        assertTrue(GroceryNameIndex.matches("MIL", "Milk chocolate"));
+        assertFalse(GroceryNameIndex.matches("ilk", "Whole Milk"));
+        assertFalse(GroceryNameIndex.matches("oat milk", "Whole Milk"));
+        assertFalse(GroceryNameIndex.matches("  ", "Whole Milk"));
+        assertFalse(GroceryNameIndex.matches("milk", null));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GroceryPathsTest {
+
+    @Test
+    public void canonical_fillsInTheUid() {
+        assertEquals("Users/abc", new GroceryPaths("Users/{uid}").canonical("abc"));
+        assertEquals("lists/abc/items", new GroceryPaths("lists/{uid}/items").canonical("abc"));
+    }
+
+    @Test
+    public void legacyTemplates_excludeTheCanonicalOne() {
+        assertEquals(Arrays.asList("groceries/{uid}", "users/{uid}/Users", "users/{uid}/groceries"),
+                new GroceryPaths("Users/{uid}").legacyTemplates());
+        assertEquals(4, new GroceryPaths("lists/{uid}/items").legacyTemplates().size());
+    }
+
+    @Test
+    public void checkpoint_isPerUserSourceAndTarget() {
+        GroceryPaths paths = new GroceryPaths("Users/{uid}");
+        assertEquals("migrations/abc/groceries_uid_to_Users_uid", paths.checkpoint("abc", "groceries/{uid}"));
+        assertNotEquals(paths.checkpoint("abc", "users/{uid}/Users"), paths.checkpoint("abc", "users/{uid}/groceries"));
+        assertNotEquals(paths.checkpoint("abc", "groceries/{uid}"),
+                new GroceryPaths("lists/{uid}").checkpoint("abc", "groceries/{uid}"));
+    }
+
+    @Test
+    public void upgradeCheckpoint_isPerUserAndCanonicalPath() {
+        GroceryPaths paths = new GroceryPaths("Users/{uid}");
+        assertEquals("migrations/abc/Users_uid_to_v2", paths.upgradeCheckpoint("abc"));
+        assertNotEquals(paths.upgradeCheckpoint("abc"), paths.checkpoint("abc", "groceries/{uid}"));
+        assertNotEquals(paths.upgradeCheckpoint("abc"), new GroceryPaths("lists/{uid}").upgradeCheckpoint("abc"));
+    }
+
+    @Test
+    public void rejectsUnsafeInput() {
+        try {
+            new GroceryPaths("Users");
+            fail("template without a uid placeholder");
+        } catch (IllegalArgumentException expected) { }
+        try {
+            new GroceryPaths("Users/{uid}").canonical("abc/../xyz");
+            fail("uid with a separator");
+        } catch (IllegalArgumentException expected) { }
+    }
+}
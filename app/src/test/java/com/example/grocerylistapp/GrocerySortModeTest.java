@@ -0,0 +1,130 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GrocerySortModeTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    private static List<GroceryItem> items(int count) {
+        Random random = new Random(7);
+        String[] names = {"milk", "Milk", "apples", "Bread", "eggs", "oat milk", "Zucchini"};
+        List<GroceryItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String key = String.format("k%03d", i);
+            String name = names[random.nextInt(names.length)];
+            long quantity = random.nextInt(9) + 1;
+            // Some nodes are still in the version 1 layout, without the children the server sorts by
+            items.add(i % 7 == 0
+                    ? GroceryItemCodec.decode(key, node("id", key, "item", name, "quantity", quantity))
+                    : new GroceryItem(key, name, (int) quantity));
+        }
+        Collections.shuffle(items, random);
+        return items;
+    }
+
+    private static Map<String, Object> node(Object... keysAndValues) {
+        Map<String, Object> node = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            node.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return node;
+    }
+
+    // What Firebase returns for a page after bound (or the first page when it's null), as GroceryListSync asks for it
+    private static List<GroceryItem> page(List<GroceryItem> all, GrocerySortMode mode, GroceryItem bound) {
+        List<GroceryItem> inServerOrder = new ArrayList<>(all);
+        Collections.sort(inServerOrder, mode.serverOrder);
+        List<GroceryItem> candidates = new ArrayList<>();
+        for (GroceryItem item : inServerOrder) {
+            int side = bound == null ? 0 : mode.serverOrder.compare(item, bound);
+            // startAfter(bound) reading forwards, endBefore(bound) reading from the end
+            if (bound == null || (mode.fromEnd ? side < 0 : side > 0)) candidates.add(item);
+        }
+        int size = Math.min(PAGE_SIZE, candidates.size());
+        return mode.fromEnd
+                ? candidates.subList(candidates.size() - size, candidates.size())
+                : candidates.subList(0, size);
+    }
+
+    @Test
+    public void pagesInEveryMode_areContiguousRunsOfTheListAsShown() {
+        List<GroceryItem> all = items(130);
+        for (GrocerySortMode mode : GrocerySortMode.values()) {
+            List<GroceryItem> expected = new ArrayList<>(all);
+            Collections.sort(expected, mode.comparator);
+
+            OrderedItems window = new OrderedItems(mode.comparator);
+            GroceryItem bound = null;
+            int pages = 0;
+            while (true) {
+                List<GroceryItem> page = page(all, mode, bound);
+                if (page.isEmpty()) break;
+                for (GroceryItem item : page) {
+                    window.add(item);
+                }
+                pages++;
+                // Each page extends the window without reordering what was already shown
+                assertEquals(mode.name(), expected.subList(0, window.size()), window.toList());
+                bound = window.get(window.size() - 1);
+            }
+            assertEquals(mode.name(), 3, pages);
+            assertEquals(mode.name(), all.size(), window.size());
+        }
+    }
+
+    @Test
+    public void recent_startsFromTheNewestKey() {
+        List<GroceryItem> first = page(items(130), GrocerySortMode.RECENT, null);
+        List<GroceryItem> shown = new ArrayList<>(first);
+        Collections.sort(shown, GrocerySortMode.RECENT.comparator);
+        assertEquals("k129", shown.get(0).getId());
+        assertEquals("k080", shown.get(PAGE_SIZE - 1).getId());
+    }
+
+    @Test
+    public void quantity_startsFromTheLargest() {
+        List<GroceryItem> shown = new ArrayList<>(page(items(130), GrocerySortMode.QUANTITY, null));
+        Collections.sort(shown, GrocerySortMode.QUANTITY.comparator);
+        assertEquals(9, shown.get(0).getQuantity());
+        for (int i = 1; i < shown.size(); i++) {
+            assertTrue(shown.get(i - 1).getQuantity() >= shown.get(i).getQuantity());
+        }
+    }
+
+    @Test
+    public void orderValue_isMissingForChildrenTheStoredNodeLacks() {
+        GroceryItem version1 = GroceryItemCodec.decode("k1", node("id", "k1", "item", "Milk", "quantity", 3L));
+        assertNull(GrocerySortMode.NAME.orderValue(version1));
+        assertNull(GrocerySortMode.QUANTITY.orderValue(version1));
+
+        // After a quantity-only update the server sorts it by quantity but not by name
+        GroceryItem stepped = GroceryItemCodec.decode("k1", node("id", "k1", "item", "Milk", "quantity", 3L, "q", 5L));
+        assertNull(GrocerySortMode.NAME.orderValue(stepped));
+        assertEquals(5, GrocerySortMode.QUANTITY.orderValue(stepped));
+
+        // Sorted first by name, as the server does, not by its decoded name
+        GroceryItem compact = new GroceryItem("k2", "Apples", 1);
+        assertTrue(GrocerySortMode.NAME.comparator.compare(version1, compact) < 0);
+    }
+
+    @Test
+    public void orderValue_isTheChildEachModeQueriesBy() {
+        GroceryItem item = new GroceryItem("k1", "Milk", 3);
+        assertNull(GrocerySortMode.ADDED.orderValue(item));
+        assertNull(GrocerySortMode.RECENT.orderValue(item));
+        assertEquals("Milk", GrocerySortMode.NAME.orderValue(item));
+        assertEquals(3, GrocerySortMode.QUANTITY.orderValue(item));
+        assertEquals(GroceryItemCodec.KEY_NAME, GrocerySortMode.NAME.orderBy);
+        assertEquals(GroceryItemCodec.KEY_QUANTITY, GrocerySortMode.QUANTITY.orderBy);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OrderedItemsTest {
+
+    private static List<String> names(OrderedItems items) {
+        List<String> names = new ArrayList<>();
+        for (GroceryItem item : items.toList()) {
+            names.add(item.getItem());
+        }
+        return names;
+    }
+
+    @Test
+    public void add_keepsItemsInComparatorOrder() {
+        OrderedItems items = new OrderedItems(GrocerySortMode.NAME.comparator);
+        items.add(new GroceryItem("1", "milk", 1));
+        items.add(new GroceryItem("2", "Apples", 3));
+        items.add(new GroceryItem("3", "bread", 2));
+        assertEquals(Arrays.asList("Apples", "bread", "milk"), names(items));
+    }
+
+    @Test
+    public void setComparator_reordersWhatIsHeld() {
+        OrderedItems items = new OrderedItems(GrocerySortMode.ADDED.comparator);
+        items.setAll(Arrays.asList(
+                new GroceryItem("1", "milk", 1),
+                new GroceryItem("2", "apples", 3),
+                new GroceryItem("3", "bread", 2)));
+        assertEquals(Arrays.asList("milk", "apples", "bread"), names(items));
+
+        items.setComparator(GrocerySortMode.QUANTITY.comparator);
+        assertEquals(Arrays.asList("apples", "bread", "milk"), names(items));
+
+        items.setComparator(GrocerySortMode.RECENT.comparator);
+        assertEquals(Arrays.asList("bread", "apples", "milk"), names(items));
+    }
+
+    @Test
+    public void replace_movesOnlyWhenTheSortPositionChanges() {
+        OrderedItems items = new OrderedItems(GrocerySortMode.QUANTITY.comparator);
+        GroceryItem milk = new GroceryItem("1", "milk", 1);
+        GroceryItem apples = new GroceryItem("2", "apples", 3);
+        items.setAll(Arrays.asList(milk, apples));
+
+        GroceryItem moreMilk = new GroceryItem("1", "milk", 5);
+        items.replace(milk, moreMilk);
+        assertEquals(Arrays.asList("milk", "apples"), names(items));
+
+        GroceryItem evenMoreMilk = new GroceryItem("1", "milk", 6);
+        items.replace(moreMilk, evenMoreMilk);
+        assertSame(evenMoreMilk, items.get(0));
+        assertEquals(2, items.size());
+    }
+
+    @Test
+    public void remove_findsItemsThatShareSortKeys() {
+        OrderedItems items = new OrderedItems(GrocerySortMode.NAME.comparator);
+        GroceryItem first = new GroceryItem("1", "eggs", 1);
+        GroceryItem second = new GroceryItem("2", "Eggs", 1);
+        items.add(first);
+        items.add(second);
+        assertTrue(items.remove(second));
+        assertFalse(items.remove(second));
+        assertSame(first, items.get(0));
+    }
+
+    @Test
+    public void incrementalChanges_matchAFullSort() {
+        Random random = new Random(3);
+        OrderedItems items = new OrderedItems(GrocerySortMode.NAME.comparator);
+        List<GroceryItem> current = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            GroceryItem item = new GroceryItem(String.format("%04d", i), "item " + random.nextInt(50), random.nextInt(9));
+            items.add(item);
+            current.add(item);
+        }
+        for (int i = 0; i < 200; i++) {
+            int position = random.nextInt(current.size());
+            GroceryItem old = current.get(position);
+            if (i % 3 == 0) {
+                items.remove(old);
+                current.remove(position);
+            } else {
+                GroceryItem updated = new GroceryItem(old.getId(), "item " + random.nextInt(50), random.nextInt(9));
+                items.replace(old, updated);
+                current.set(position, updated);
+            }
+        }
+        Collections.sort(current, GrocerySortMode.NAME.comparator);
+        assertEquals(current, items.toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PendingMutationsTest {
+
+    private static final GroceryItem MILK = new GroceryItem("a", "Milk", 1);
+    private static final GroceryItem MORE_MILK = new GroceryItem("a", "Milk", 2);
+    private static final GroceryItem EVEN_MORE_MILK = new GroceryItem("a", "Milk", 3);
+
+    @Test
+    public void confirm_forgetsTheWrite() {
+        PendingMutations mutations = new PendingMutations();
+        long sequence = mutations.begin("a", MILK, MORE_MILK);
+        mutations.confirm(sequence);
+        assertNull(mutations.fail(sequence));
+    }
+
+    @Test
+    public void fail_returnsTheWriteToUndo() {
+        PendingMutations mutations = new PendingMutations();
+        long sequence = mutations.begin("a", null, MILK);
+        PendingMutations.Mutation failed = mutations.fail(sequence);
+        assertNotNull(failed);
+        assertNull(failed.before);
+        assertSame(MILK, failed.after);
+        assertNull(mutations.fail(sequence)); // Only undone once
+    }
+
+    @Test
+    public void fail_ofAnOlderWriteIsCarriedByTheNewerOne() {
+        PendingMutations mutations = new PendingMutations();
+        long first = mutations.begin("a", MILK, MORE_MILK);
+        long second = mutations.begin("a", MORE_MILK, EVEN_MORE_MILK);
+
+        assertNull(mutations.fail(first));
+        PendingMutations.Mutation failed = mutations.fail(second);
+        assertSame(MILK, failed.before);
+    }
+
+    @Test
+    public void fail_onlyLooksAtWritesToTheSameItem() {
+        PendingMutations mutations = new PendingMutations();
+        long milk = mutations.begin("a", MILK, MORE_MILK);
+        long eggs = mutations.begin("b", null, new GroceryItem("b", "Eggs", 6));
+        assertNotNull(mutations.fail(milk));
+        // Still pending, so its own failure is undone rather than handed on
+        assertNotNull(mutations.fail(eggs));
+    }
+}
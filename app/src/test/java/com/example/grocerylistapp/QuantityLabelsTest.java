@@ -0,0 +1,30 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QuantityLabelsTest {
+
+    @Test
+    public void forQuantity_formatsLabel() {
+        QuantityLabels labels = new QuantityLabels();
+        assertEquals("Qty: 0", labels.forQuantity(0));
+        assertEquals("Qty: 12", labels.forQuantity(12));
+        assertEquals("Qty: 999", labels.forQuantity(BulkItemParser.MAX_QUANTITY));
+    }
+
+    @Test
+    public void forQuantity_reusesCachedLabel() {
+        QuantityLabels labels = new QuantityLabels();
+        assertSame(labels.forQuantity(7), labels.forQuantity(7));
+        assertSame(labels.forQuantity(999), labels.forQuantity(999));
+    }
+
+    @Test
+    public void forQuantity_formatsValuesOutsideCachedRange() {
+        QuantityLabels labels = new QuantityLabels();
+        assertEquals("Qty: 1000", labels.forQuantity(1000));
+        assertEquals("Qty: -3", labels.forQuantity(-3));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SharedListsTest {
+
+    @Test
+    public void create_writesMetaMembershipAndIndexTogether() {
+        Map<String, Object> updates = SharedLists.create("L1", "alice", "Home");
+        assertEquals("Home", updates.get("lists/L1/meta/name"));
+        assertEquals("alice", updates.get("lists/L1/meta/owner"));
+        assertEquals(true, updates.get("lists/L1/members/alice"));
+        assertEquals("Home", updates.get("userLists/alice/L1/name"));
+        assertEquals(4, updates.size());
+    }
+
+    @Test
+    public void leave_removesBothSides() {
+        Map<String, Object> updates = SharedLists.leave("L1", "bob");
+        assertTrue(updates.containsKey("lists/L1/members/bob"));
+        assertNull(updates.get("lists/L1/members/bob"));
+        assertTrue(updates.containsKey("userLists/bob/L1"));
+        assertEquals(2, updates.size());
+    }
+
+    @Test
+    public void itemWrite_stampsTheListNotItsMembers() {
+        Map<String, Object> items = new HashMap<>();
+        items.put("k1", Collections.singletonMap("item", "Milk"));
+        items.put("k2/quantity", 3);
+        Object timestamp = new Object();
+
+        Map<String, Object> updates = SharedLists.itemWrite("L1", items, timestamp);
+        assertEquals(items.get("k1"), updates.get("lists/L1/items/k1"));
+        assertEquals(3, updates.get("lists/L1/items/k2/quantity"));
+        // Members may only write their own index, so nothing of theirs is in a member's write
+        assertSame(timestamp, updates.get("lists/L1/meta/updatedAt"));
+        assertEquals(3, updates.size());
+    }
+
+    @Test
+    public void rejectsIdsThatAreNotSingleKeys() {
+        for (String bad : new String[]{"", "a/b", "a.b", "a#b", "a$b", "a[b]"}) {
+            try {
+                SharedLists.itemsPath(bad);
+                fail("accepted " + bad);
+            } catch (IllegalArgumentException expected) { }
+        }
+    }
+}
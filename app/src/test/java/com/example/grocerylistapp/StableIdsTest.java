@@ -0,0 +1,45 @@
+package com.example.grocerylistapp;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class StableIdsTest {
+
+    @Test
+    public void idFor_isCachedPerKey() {
+        StableIds ids = new StableIds();
+        long first = ids.idFor("-NaBcDeFgHiJkLmNoPq");
+        assertEquals(first, ids.idFor("-NaBcDeFgHiJkLmNoPq"));
+    }
+
+    @Test
+    public void idFor_isUniqueAcrossManyPushKeys() {
+        StableIds ids = new StableIds();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(seen.add(ids.idFor(String.format("-N%018d", i))));
+        }
+    }
+
+    @Test
+    public void assign_resolvesCollisions() {
+        StableIds ids = new StableIds();
+        long a = ids.assign("a", 42);
+        long b = ids.assign("b", 42);
+        assertEquals(42, a);
+        assertNotEquals(a, b);
+        assertEquals(a, ids.idFor("a"));
+        assertEquals(b, ids.idFor("b"));
+    }
+
+    @Test
+    public void assign_neverHandsOutNoId() {
+        StableIds ids = new StableIds();
+        assertNotEquals(StableIds.NO_ID, ids.assign("a", StableIds.NO_ID));
+        assertEquals(StableIds.NO_ID, ids.idFor(null));
+    }
+}
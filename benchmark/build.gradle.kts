@@ -0,0 +1,48 @@
+// Pure-JVM JMH benchmarks for the grocery list hot paths. No device or emulator needed:
+//   ./gradlew :benchmark:jmh
+// Results are written as JSON to benchmark/build/results/jmh/results.json.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The benchmarked classes are plain Java, so they're compiled straight from the app's
+// sources rather than depending on the Android module. The benchmarks sit in the app's
+// package, as its unit tests do, so they run the package-private classes themselves.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/example/grocerylistapp/GroceryItem.java",
+                "com/example/grocerylistapp/GroceryItemCodec.java",
+                "com/example/grocerylistapp/BulkItemParser.java",
+                "com/example/grocerylistapp/GrocerySortMode.java",
+                "com/example/grocerylistapp/OrderedItems.java",
+                "com/example/grocerylistapp/GroceryNameIndex.java",
+                "com/example/grocerylistapp/StableIds.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    jmh(libs.jmh.core)
+    jmhAnnotationProcessor(libs.jmh.generator.annprocess)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // Narrow a run with e.g. -Pjmh.includes=Decode
+    providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+}
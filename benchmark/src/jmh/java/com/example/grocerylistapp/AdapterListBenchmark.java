@@ -0,0 +1,93 @@
+package com.example.grocerylistapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GroceryAdapter list updates: the old clear-and-copy replacement, and the per-row
+ * comparisons GroceryAdapter's diff callback makes (same id, then equal contents).
+ * DiffUtil itself lives in an Android-only artifact, so this measures the callback work
+ * over a keyed match rather than the full Myers pass. Also the stable id lookups the
+ * adapter makes per row through {@link StableIds}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdapterListBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    private List<GroceryItem> current;
+    private List<GroceryItem> next;
+    private List<GroceryItem> adapterList;
+    private StableIds stableIds;
+
+    @Setup
+    public void setUp() {
+        current = GroceryData.items(size);
+        next = GroceryData.edited(current);
+        adapterList = new ArrayList<>(current);
+        stableIds = new StableIds();
+        for (GroceryItem item : current) {
+            stableIds.idFor(item.getId());
+        }
+    }
+
+    @Benchmark
+    public List<GroceryItem> replaceList() {
+        adapterList.clear();
+        adapterList.addAll(next);
+        return adapterList;
+    }
+
+    /** Returns inserted + removed + changed rows, i.e. the notifications a diff would send. */
+    @Benchmark
+    public int keyedDiff() {
+        Map<String, GroceryItem> oldById = new HashMap<>(current.size() * 2);
+        for (GroceryItem item : current) {
+            oldById.put(item.getId(), item);
+        }
+        int notifications = 0;
+        for (GroceryItem item : next) {
+            GroceryItem old = oldById.remove(item.getId());
+            if (old == null || !old.equals(item)) {
+                notifications++;
+            }
+        }
+        return notifications + oldById.size();
+    }
+
+    /** Ids for keys seen for the first time: one hash each. */
+    @Benchmark
+    public long assignStableIds() {
+        StableIds ids = new StableIds();
+        long sum = 0;
+        for (GroceryItem item : current) {
+            sum += ids.idFor(item.getId());
+        }
+        return sum;
+    }
+
+    /** Ids for keys already assigned, as on every rebind. */
+    @Benchmark
+    public long lookUpStableIds() {
+        long sum = 0;
+        for (GroceryItem item : next) {
+            sum += stableIds.idFor(item.getId());
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.grocerylistapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GroceryItem deserialization: the hand-written codec over the compact v2 layout and the
+ * v1 layout it still reads, against reflective bean mapping. Reflective mapping only ever
+ * understood v1, so it always decodes the v1 nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodeBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({GroceryData.LAYOUT_V2, GroceryData.LAYOUT_V1})
+    public String layout;
+
+    private List<Map<String, Object>> nodes;
+    private List<Map<String, Object>> v1Nodes;
+
+    @Setup
+    public void setUp() {
+        nodes = GroceryData.rawNodes(size, layout);
+        v1Nodes = GroceryData.rawNodes(size, GroceryData.LAYOUT_V1);
+    }
+
+    @Benchmark
+    public void codec(Blackhole blackhole) {
+        for (int i = 0; i < nodes.size(); i++) {
+            blackhole.consume(GroceryItemCodec.decode(GroceryData.key(i), nodes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void reflective(Blackhole blackhole) {
+        for (int i = 0; i < v1Nodes.size(); i++) {
+            GroceryItem item = ReflectiveMapper.convert(v1Nodes.get(i), GroceryItem.class);
+            item.setId(GroceryData.key(i));
+            blackhole.consume(item);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.grocerylistapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Deterministic synthetic grocery data shaped like what the Realtime Database returns. */
+final class GroceryData {
+
+    private static final String[] NAMES = {
+            "Milk", "Eggs", "Bread", "Butter", "Apples", "Bananas", "Rice", "Pasta", "Tomatoes",
+            "Onions", "Garlic", "Cheese", "Yogurt", "Chicken", "Coffee", "Tea", "Oats", "Flour",
+    };
+
+    private GroceryData() { }
+
+    /** Push-key-like ids: fixed width and increasing, so key order is insertion order. */
+    static String key(int i) {
+        return String.format("-N%018d", i);
+    }
+
+    static String name(int i) {
+        return NAMES[i % NAMES.length] + " " + (i / NAMES.length);
+    }
+
+    /** The compact layout GroceryItemCodec writes, {"v": 2, "n": name, "q": quantity}. */
+    static final String LAYOUT_V2 = "v2";
+    /** The layout setValue(GroceryItem) wrote, {"id", "item", "quantity"}; still read for old nodes. */
+    static final String LAYOUT_V1 = "v1";
+
+    /**
+     * Raw child values in layout as DataSnapshot.getValue() hands them back (numbers as Long).
+     * The node at i is the child under key(i).
+     */
+    static List<Map<String, Object>> rawNodes(int size, String layout) {
+        Random random = new Random(42);
+        List<Map<String, Object>> nodes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long quantity = random.nextInt(12) + 1;
+            Map<String, Object> node = new HashMap<>();
+            if (LAYOUT_V1.equals(layout)) {
+                node.put(GroceryItemCodec.V1_KEY_ID, key(i));
+                node.put(GroceryItemCodec.V1_KEY_ITEM, name(i));
+                node.put(GroceryItemCodec.V1_KEY_QUANTITY, quantity);
+            } else {
+                node.put(GroceryItemCodec.KEY_VERSION, (long) GroceryItemCodec.SCHEMA_VERSION);
+                node.put(GroceryItemCodec.KEY_NAME, name(i));
+                node.put(GroceryItemCodec.KEY_QUANTITY, quantity);
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    static List<GroceryItem> items(int size) {
+        Random random = new Random(42);
+        List<GroceryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new GroceryItem(key(i), name(i), random.nextInt(12) + 1));
+        }
+        return items;
+    }
+
+    /**
+     * A copy of items after a typical sync round: one item in a hundred edited, one in a
+     * hundred deleted and a few new ones appended at the end.
+     */
+    static List<GroceryItem> edited(List<GroceryItem> items) {
+        List<GroceryItem> result = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            GroceryItem item = items.get(i);
+            if (i % 100 == 50) continue;
+            if (i % 100 == 10) {
+                result.add(new GroceryItem(item.getId(), item.getItem(), item.getQuantity() + 1));
+            } else {
+                result.add(item);
+            }
+        }
+        int added = Math.max(1, items.size() / 100);
+        for (int i = 0; i < added; i++) {
+            result.add(new GroceryItem(key(items.size() + i), name(items.size() + i), 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.grocerylistapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the displayed list: rebuilding it from every child of a snapshot (the old
+ * ValueEventListener path) against applying one child event the way GroceryListSync.upsert
+ * does, to its key-ordered store, its display-ordered {@link OrderedItems} and its
+ * {@link GroceryNameIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListBuildBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({"ADDED", "NAME", "QUANTITY"})
+    public GrocerySortMode mode;
+
+    private List<Map<String, Object>> nodes;
+    private List<GroceryItem> store;
+    private final Map<String, GroceryItem> storeById = new HashMap<>();
+    private OrderedItems displayItems;
+    private final GroceryNameIndex nameIndex = new GroceryNameIndex();
+    private String changedKey;
+    // Two versions of one child, applied alternately so every call is a real change
+    private final List<Map<String, Object>> changedNodes = new ArrayList<>(2);
+    private int nextChange;
+
+    @Setup
+    public void setUp() {
+        nodes = GroceryData.rawNodes(size, GroceryData.LAYOUT_V2);
+        store = GroceryData.items(size);
+        displayItems = new OrderedItems(mode.comparator);
+        displayItems.setAll(store);
+        for (GroceryItem item : store) {
+            storeById.put(item.getId(), item);
+            nameIndex.put(item);
+        }
+        GroceryItem changed = store.get(size / 2);
+        changedKey = changed.getId();
+        changedNodes.add(GroceryItemCodec.encode(new GroceryItem(changedKey, changed.getItem(), 20)));
+        changedNodes.add(GroceryItemCodec.encode(new GroceryItem(changedKey, "Oat milk", 1)));
+    }
+
+    @Benchmark
+    public List<GroceryItem> rebuildFromSnapshot() {
+        List<GroceryItem> tempItems = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            GroceryItem item = GroceryItemCodec.decode(GroceryData.key(i), nodes.get(i));
+            if (item != null) {
+                tempItems.add(item);
+            }
+        }
+        return tempItems;
+    }
+
+    @Benchmark
+    public OrderedItems applySingleChange() {
+        GroceryItem item = GroceryItemCodec.decode(changedKey, changedNodes.get(nextChange ^= 1));
+        int position = Collections.binarySearch(store, item, GrocerySortMode.ADDED.comparator);
+        GroceryItem old = store.set(position, item);
+        displayItems.replace(old, item);
+        storeById.put(item.getId(), item);
+        nameIndex.put(item);
+        return displayItems;
+    }
+}
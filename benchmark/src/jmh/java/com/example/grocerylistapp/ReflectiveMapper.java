@@ -0,0 +1,60 @@
+package com.example.grocerylistapp;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for Firebase's CustomClassMapper, which ships in an Android-only artifact:
+ * bean introspection cached per class, a no-arg constructor and a reflective setter call
+ * per property, with numeric widening like the real mapper.
+ */
+final class ReflectiveMapper {
+
+    private static final Map<Class<?>, Map<String, Method>> SETTERS = new ConcurrentHashMap<>();
+
+    private ReflectiveMapper() { }
+
+    static <T> T convert(Object raw, Class<T> clazz) {
+        if (!(raw instanceof Map)) return null;
+        try {
+            T instance = clazz.getDeclaredConstructor().newInstance();
+            Map<String, Method> setters = SETTERS.computeIfAbsent(clazz, ReflectiveMapper::introspect);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+                Method setter = setters.get(String.valueOf(entry.getKey()));
+                if (setter == null) continue;
+                setter.invoke(instance, coerce(entry.getValue(), setter.getParameterTypes()[0]));
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Method> introspect(Class<?> clazz) {
+        try {
+            BeanInfo info = Introspector.getBeanInfo(clazz, Object.class);
+            Map<String, Method> setters = new HashMap<>();
+            for (PropertyDescriptor property : info.getPropertyDescriptors()) {
+                if (property.getWriteMethod() != null) {
+                    setters.put(property.getName(), property.getWriteMethod());
+                }
+            }
+            return setters;
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object coerce(Object value, Class<?> type) {
+        if ((type == int.class || type == Integer.class) && value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return value;
+    }
+}
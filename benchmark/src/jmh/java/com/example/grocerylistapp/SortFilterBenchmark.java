@@ -0,0 +1,97 @@
+package com.example.grocerylistapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting and filtering as GroceryListSync does them: a full sort into an
+ * {@link OrderedItems} under a {@link GrocerySortMode}, and a {@link GroceryNameIndex}
+ * search with its matches sorted for display, against a naive substring scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SortFilterBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({"ADDED", "RECENT", "NAME", "QUANTITY"})
+    public GrocerySortMode mode;
+
+    private List<GroceryItem> items;
+    private Map<String, GroceryItem> itemsById;
+    private GroceryNameIndex index;
+    private OrderedItems ordered;
+
+    @Setup
+    public void setUp() {
+        items = GroceryData.items(size);
+        Collections.shuffle(items, new Random(7));
+        itemsById = new HashMap<>();
+        index = new GroceryNameIndex();
+        for (GroceryItem item : items) {
+            itemsById.put(item.getId(), item);
+            index.put(item);
+        }
+        ordered = new OrderedItems(GrocerySortMode.ADDED.comparator);
+        ordered.setAll(items);
+    }
+
+    /** Sorting items nothing was known about, e.g. a seeded list. */
+    @Benchmark
+    public OrderedItems sort() {
+        OrderedItems sorted = new OrderedItems(mode.comparator);
+        sorted.setAll(items);
+        return sorted;
+    }
+
+    /** Switching to mode from oldest-first, and back. */
+    @Benchmark
+    public OrderedItems changeMode() {
+        ordered.setComparator(mode.comparator);
+        ordered.setComparator(GrocerySortMode.ADDED.comparator);
+        return ordered;
+    }
+
+    /** What GroceryListSync.filteredItems does for the window's matches. */
+    @Benchmark
+    public List<GroceryItem> search() {
+        Set<String> ids = index.search("milk 1");
+        List<GroceryItem> matches = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            matches.add(itemsById.get(id));
+        }
+        Collections.sort(matches, mode.comparator);
+        return matches;
+    }
+
+    /** The scan search replaced, for comparison. */
+    @Benchmark
+    public List<GroceryItem> filterContains() {
+        List<GroceryItem> matches = new ArrayList<>();
+        for (GroceryItem item : items) {
+            if (item.getItem().toLowerCase(Locale.ROOT).contains("milk 1")) {
+                matches.add(item);
+            }
+        }
+        Collections.sort(matches, mode.comparator);
+        return matches;
+    }
+}
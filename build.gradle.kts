@@ -1,4 +1,7 @@
 plugins {
     alias(libs.plugins.android.application) apply false
+    alias(libs.plugins.android.test) apply false
+    alias(libs.plugins.baselineprofile) apply false
+    alias(libs.plugins.jmh) apply false
     id("com.google.gms.google-services") version "4.4.3" apply false
 }
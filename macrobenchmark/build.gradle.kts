@@ -0,0 +1,45 @@
+// Startup, login-to-list and scroll benchmarks, and the baseline profile generator, run
+// against the app's release code on a device or a local emulator image:
+//   ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest \
+//       -Pandroid.testInstrumentationRunnerArguments.benchmarkEmail=... \
+//       -Pandroid.testInstrumentationRunnerArguments.benchmarkPassword=...
+//   ./gradlew :app:generateBaselineProfile (same arguments)
+// Signed-in benchmarks are skipped without an account. Results are written as JSON to
+// macrobenchmark/build/outputs/connected_android_test_additional_output/.
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.grocerylistapp.macrobenchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        minSdk = 34
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Timings from an emulator aren't representative, but they're fine for comparing runs
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "EMULATOR"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+}
+
+// The baselineprofile plugin adds the benchmarkRelease and nonMinifiedRelease build types
+// to both modules; profiles are collected on whichever device or emulator is connected.
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
@@ -0,0 +1,51 @@
+package com.example.grocerylistapp.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Collects the app's baseline profile: login, loading the list, the add and edit screens,
+ * and scrolling. Run it with ./gradlew :app:generateBaselineProfile and an account (see
+ * build.gradle.kts); the result is written to app/src/release/generated/baselineProfiles
+ * and packaged with release builds.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    private boolean itemsEnsured;
+
+    @Test
+    public void generate() {
+        Flows.assumeAccount();
+        baselineProfileRule.collect(Flows.PACKAGE, scope -> {
+            UiDevice device = scope.getDevice();
+            if (!itemsEnsured) {
+                Flows.ensureSignedIn(scope);
+                Flows.ensureItems(device);
+                itemsEnsured = true;
+            }
+            // Login screen, sign-in and the first list load
+            Flows.signOut(scope);
+            Flows.signIn(device);
+            // Relaunch signed in, routed straight to the list by LaunchActivity
+            scope.pressHome();
+            Flows.ensureSignedIn(scope);
+            Flows.waitForRows(device);
+
+            Flows.addItemWithoutSaving(device);
+            Flows.editFirstItem(device);
+            Flows.scrollList(device, 2);
+            return Unit.INSTANCE;
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.grocerylistapp.macrobenchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * UI steps shared by the benchmarks, driven through UiAutomator by view id. The account
+ * comes from the benchmarkEmail and benchmarkPassword instrumentation arguments.
+ */
+final class Flows {
+
+    static final String PACKAGE = "com.example.grocerylistapp";
+
+    private static final long TIMEOUT_MS = 30_000;
+    private static final long SHORT_TIMEOUT_MS = 3_000;
+    // Enough rows to fill several screens, so a fling never hits the end of the list
+    static final int MIN_ITEMS = 150;
+
+    private Flows() { }
+
+    static BySelector id(String viewId) {
+        return By.res(PACKAGE, viewId);
+    }
+
+    private static String argument(String name) {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        return arguments.getString(name);
+    }
+
+    /** Skips the calling benchmark when no account was passed in. */
+    static void assumeAccount() {
+        assumeTrue("Pass benchmarkEmail and benchmarkPassword as instrumentation arguments",
+                argument("benchmarkEmail") != null && argument("benchmarkPassword") != null);
+    }
+
+    /** Launches the app and leaves it signed out, on the login screen. */
+    static void signOut(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        UiObject2 logout = device.wait(Until.findObject(id("btnLogout")), SHORT_TIMEOUT_MS);
+        if (logout != null) {
+            logout.click();
+        }
+        assertNotNull("Login screen never appeared", device.wait(Until.findObject(id("etEmail")), TIMEOUT_MS));
+    }
+
+    /** Launches the app and signs in if it isn't already, ending on the grocery list. */
+    static void ensureSignedIn(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.hasObject(id("etEmail")), SHORT_TIMEOUT_MS)) {
+            signIn(device);
+        }
+        assertNotNull("Grocery list never appeared", device.wait(Until.findObject(id("rvGroceries")), TIMEOUT_MS));
+    }
+
+    /** Fills in the login form and submits it; returns once the first rows are on screen. */
+    static void signIn(UiDevice device) {
+        device.wait(Until.findObject(id("etEmail")), TIMEOUT_MS).setText(argument("benchmarkEmail"));
+        device.findObject(id("etPassword")).setText(argument("benchmarkPassword"));
+        device.findObject(id("btnLogin")).click();
+        waitForRows(device);
+    }
+
+    static UiObject2 waitForRows(UiDevice device) {
+        UiObject2 list = device.wait(Until.findObject(id("rvGroceries").hasDescendant(id("tvItemName"))), TIMEOUT_MS);
+        assertNotNull("No rows appeared in the grocery list", list);
+        return list;
+    }
+
+    /**
+     * Adds MIN_ITEMS items through bulk entry when the list is empty, so scrolling has
+     * something to scroll. Expects the grocery list to be showing.
+     */
+    static void ensureItems(UiDevice device) {
+        if (device.wait(Until.hasObject(id("tvItemName")), SHORT_TIMEOUT_MS)) return;
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= MIN_ITEMS; i++) {
+            lines.append(i % 5 + 1).append(" x benchmark item ").append(i).append('\n');
+        }
+        openAddScreen(device);
+        device.findObject(id("btnBulkMode")).click();
+        device.wait(Until.findObject(id("etBulkItems")), TIMEOUT_MS).setText(lines.toString());
+        device.findObject(id("btnSave")).click();
+        waitForRows(device);
+    }
+
+    static void openAddScreen(UiDevice device) {
+        device.findObject(id("btnAdd")).click();
+        assertNotNull("Add screen never appeared", device.wait(Until.findObject(id("btnSave")), TIMEOUT_MS));
+    }
+
+    /** Fills in the add form, then backs out so runs don't keep adding items. */
+    static void addItemWithoutSaving(UiDevice device) {
+        openAddScreen(device);
+        device.findObject(id("etItemName")).setText("profile item");
+        device.findObject(id("etQuantity")).setText("2");
+        device.findObject(id("btnBack")).click();
+        waitForRows(device);
+    }
+
+    /** Opens the first row for editing and saves it with the next quantity, wrapping after 20. */
+    static void editFirstItem(UiDevice device) {
+        waitForRows(device).findObject(id("btnEditItem")).click();
+        // The form is filled from the repository once the item is loaded
+        UiObject2 quantity = device.wait(Until.findObject(id("etQuantity").textMatches("\\d+")), TIMEOUT_MS);
+        assertNotNull("Edit screen never showed the item", quantity);
+        int current = Integer.parseInt(quantity.getText());
+        quantity.setText(String.valueOf(current % 20 + 1));
+        device.findObject(id("btnSave")).click();
+        waitForRows(device);
+    }
+
+    /** Flings the grocery list down and back up, waiting for each fling to settle. */
+    static void scrollList(UiDevice device, int flings) {
+        UiObject2 list = waitForRows(device);
+        // Keeps the gesture clear of the system navigation areas
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < flings; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        for (int i = 0; i < flings; i++) {
+            list.fling(Direction.UP);
+            device.waitForIdle();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.grocerylistapp.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * The critical path from a cold, signed-out launch: login screen, sign-in, then the grocery
+ * list's first populated frame. The trace sections are the app's own (see StartupTrace):
+ * loginToList runs from the Login tap to that frame, firstGroceriesFrame from the first
+ * list the repository publishes to it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoginToListBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private boolean itemsEnsured;
+
+    @Test
+    public void loginToList() {
+        Flows.assumeAccount();
+        benchmarkRule.measureRepeated(
+                Flows.PACKAGE,
+                Arrays.asList(
+                        section("loginToList"),
+                        section("firstGroceriesFrame"),
+                        new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    if (!itemsEnsured) {
+                        Flows.ensureSignedIn(scope);
+                        Flows.ensureItems(scope.getDevice());
+                        itemsEnsured = true;
+                    }
+                    Flows.signOut(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    Flows.signIn(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private static TraceSectionMetric section(String name) {
+        return new TraceSectionMetric(name, TraceSectionMetric.Mode.First.INSTANCE, name, true);
+    }
+}
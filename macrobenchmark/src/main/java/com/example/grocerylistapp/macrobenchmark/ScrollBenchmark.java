@@ -0,0 +1,45 @@
+package com.example.grocerylistapp.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/** Frame timing while flinging through the grocery list, which is filled first if empty. */
+@RunWith(AndroidJUnit4.class)
+public class ScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+    private static final int FLINGS = 3;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollList() {
+        Flows.assumeAccount();
+        benchmarkRule.measureRepeated(
+                Flows.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                null, // No restart between iterations; only the scrolling is measured
+                ITERATIONS,
+                scope -> {
+                    Flows.ensureSignedIn(scope);
+                    Flows.ensureItems(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Flows.scrollList(scope.getDevice(), FLINGS);
+                    return Unit.INSTANCE;
+                });
+    }
+}
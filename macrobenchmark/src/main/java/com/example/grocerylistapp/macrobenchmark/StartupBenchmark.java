@@ -0,0 +1,98 @@
+package com.example.grocerylistapp.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Launch times from the launcher icon. Signed out that's the login screen; signed in it's
+ * the grocery list, where time to full display runs until the first frame with rows in it
+ * (MainActivity reports itself fully drawn then).
+ *
+ * Each launch is measured with no ahead-of-time compilation and with only the baseline
+ * profile compiled, as on a first launch from the store, to show what the profile buys.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> compilationModes() {
+        return Arrays.asList(
+                new Object[]{"noCompilation", new CompilationMode.None()},
+                new Object[]{"baselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require, 0)});
+    }
+
+    @Parameterized.Parameter(0)
+    public String modeName;
+
+    @Parameterized.Parameter(1)
+    public CompilationMode compilationMode;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartSignedOut() {
+        benchmarkRule.measureRepeated(
+                Flows.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    Flows.signOut(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void coldStartSignedIn() {
+        startSignedIn(StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartSignedIn() {
+        startSignedIn(StartupMode.WARM);
+    }
+
+    private void startSignedIn(StartupMode mode) {
+        Flows.assumeAccount();
+        benchmarkRule.measureRepeated(
+                Flows.PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                mode,
+                ITERATIONS,
+                scope -> {
+                    Flows.ensureSignedIn(scope);
+                    Flows.ensureItems(scope.getDevice());
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    Flows.waitForRows(scope.getDevice()); // So the fully-drawn report lands in this iteration
+                    return Unit.INSTANCE;
+                });
+    }
+}
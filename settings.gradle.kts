@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "GroceryListApp"
 include(":app")
+include(":benchmark")
+include(":macrobenchmark")
  
\ No newline at end of file